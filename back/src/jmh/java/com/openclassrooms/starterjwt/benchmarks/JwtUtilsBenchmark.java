@@ -0,0 +1,82 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtParseResult;
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation and the per-request work of AuthTokenFilter: a full parse on a cache miss,
+ * or a digest lookup in the token cache on a hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilsBenchmark {
+
+    @Param({"false", "true"})
+    private boolean statelessPrincipal;
+
+    private JwtUtils jwtUtils;
+    private JwtTokenCache jwtTokenCache;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        setField(jwtUtils, "jwtSecret", "openclassrooms");
+        setField(jwtUtils, "jwtExpirationMs", 86400000);
+        setField(jwtUtils, "statelessPrincipal", statelessPrincipal);
+        jwtUtils.init();
+
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("yoga@studio.com")
+                .firstName("Admin")
+                .lastName("Admin")
+                .admin(true)
+                .password("password")
+                .build();
+        authentication = new UsernamePasswordAuthenticationToken(userDetails, null, Collections.emptyList());
+        token = jwtUtils.generateJwtToken(authentication);
+
+        jwtTokenCache = new JwtTokenCache(10000);
+        jwtTokenCache.put(token, userDetails, new Date(System.currentTimeMillis() + 86400000L));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public UserDetails parseToken() {
+        JwtParseResult parseResult = jwtUtils.parseJwtToken(token);
+        return jwtUtils.getUserDetailsFromClaims(parseResult.getClaims());
+    }
+
+    @Benchmark
+    public UserDetails cachedToken() {
+        return jwtTokenCache.get(token);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
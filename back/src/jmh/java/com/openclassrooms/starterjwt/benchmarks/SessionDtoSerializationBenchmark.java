@@ -0,0 +1,56 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a page of 50 sessions, the default page size of GET /api/session,
+ * with an ObjectMapper configured like the one Spring Boot injects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionDtoSerializationBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10", "100", "1000"})
+    private int participants;
+
+    private ObjectMapper objectMapper;
+    private SessionDto sessionDto;
+    private List<SessionDto> sessionDtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        sessionDtos = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            sessionDtos.add(Sessions.dto(id, participants));
+        }
+        sessionDto = sessionDtos.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializeSession() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(sessionDto);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(sessionDtos);
+    }
+}
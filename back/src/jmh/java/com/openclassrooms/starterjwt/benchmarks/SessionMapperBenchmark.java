@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import com.openclassrooms.starterjwt.models.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionMapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int participants;
+
+    private SessionMapper sessionMapper;
+    private Session session;
+    private List<Session> sessions;
+    private Map<Long, List<Long>> userIdsBySession;
+
+    @Setup
+    public void setUp() {
+        sessionMapper = new SessionMapperImpl();
+        session = Sessions.session(1L, participants);
+        sessions = Collections.singletonList(session);
+        userIdsBySession = Collections.singletonMap(session.getId(), Sessions.userIds(participants));
+    }
+
+    @Benchmark
+    public SessionDto toDtoFromEntity() {
+        return sessionMapper.toDto(session);
+    }
+
+    @Benchmark
+    public List<SessionDto> toDtoFromParticipantIds() {
+        return sessionMapper.toDto(sessions, userIdsBySession);
+    }
+}
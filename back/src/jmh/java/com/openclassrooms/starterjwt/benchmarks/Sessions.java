@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+final class Sessions {
+    private static final String DESCRIPTION = "Vinyasa flow for all levels, focusing on breath and alignment.";
+
+    private Sessions() {
+    }
+
+    static Session session(Long id, int participants) {
+        List<User> users = new ArrayList<>(participants);
+        for (long userId = 1; userId <= participants; userId++) {
+            users.add(User.builder()
+                    .id(userId)
+                    .email("user" + userId + "@studio.com")
+                    .firstName("First" + userId)
+                    .lastName("Last" + userId)
+                    .password("password")
+                    .admin(false)
+                    .build());
+        }
+
+        return Session.builder()
+                .id(id)
+                .name("Session " + id)
+                .date(new Date())
+                .description(DESCRIPTION)
+                .capacity(participants)
+                .teacher(Teacher.builder().id(1L).firstName("Margot").lastName("Delahaye").build())
+                .users(users)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    static SessionDto dto(Long id, int participants) {
+        return new SessionDto(id, "Session " + id, new Date(), 1L, DESCRIPTION, participants,
+                userIds(participants), LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    static List<Long> userIds(int participants) {
+        List<Long> userIds = new ArrayList<>(participants);
+        for (long userId = 1; userId <= participants; userId++) {
+            userIds.add(userId);
+        }
+        return userIds;
+    }
+}
@@ -0,0 +1,105 @@
+package com.openclassrooms.starterjwt.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Small thread-safe cache whose entries carry their own expiry instant.
+ * Reads never lock: each entry records when it was last read, and once the
+ * cache grows past its maximum size a put drops expired entries first, then
+ * the least recently read ones, so eviction is approximately LRU.
+ */
+public class ExpiringCache<K, V> {
+    private final int maxSize;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public ExpiringCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = this.entries.get(key);
+        if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+            this.entries.remove(key, entry);
+            entry = null;
+        }
+
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+
+        entry.lastAccess = System.nanoTime();
+        this.hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value, long expiresAt) {
+        if (this.maxSize <= 0 || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+
+        this.entries.put(key, new Entry<>(value, expiresAt));
+        if (this.entries.size() > this.maxSize) {
+            evict();
+        }
+    }
+
+    public void removeIf(Predicate<V> predicate) {
+        this.entries.values().removeIf(entry -> predicate.test(entry.value));
+    }
+
+    public void clear() {
+        this.entries.clear();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        this.entries.values().removeIf(entry -> entry.expiresAt <= now);
+
+        while (this.entries.size() > this.maxSize) {
+            Map.Entry<K, Entry<V>> eldest = null;
+            for (Map.Entry<K, Entry<V>> candidate : this.entries.entrySet()) {
+                if (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess) {
+                    eldest = candidate;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            this.entries.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+
+        private final long expiresAt;
+
+        private volatile long lastAccess = System.nanoTime();
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
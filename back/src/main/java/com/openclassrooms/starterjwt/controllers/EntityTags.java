@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.repository.CollectionVersion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Builds the ETag and Last-Modified values used for conditional GETs from {@code updatedAt} columns.
+ */
+final class EntityTags {
+    private EntityTags() {
+    }
+
+    static String of(Long id, LocalDateTime updatedAt) {
+        return id + "-" + lastModified(updatedAt);
+    }
+
+    static String of(CollectionVersion version) {
+        return of(version.getCount(), version.getLastModified());
+    }
+
+    static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
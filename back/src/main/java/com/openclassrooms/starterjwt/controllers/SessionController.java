@@ -1,34 +1,70 @@
 package com.openclassrooms.starterjwt.controllers;
 
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.ParticipationDto;
+import com.openclassrooms.starterjwt.dto.ParticipationStatus;
+import com.openclassrooms.starterjwt.dto.SessionCursorPageDto;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.BatchParticipationRequest;
+import com.openclassrooms.starterjwt.repository.CollectionVersion;
+import com.openclassrooms.starterjwt.services.SessionCursor;
+import com.openclassrooms.starterjwt.services.SessionListCache;
 import com.openclassrooms.starterjwt.services.SessionService;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = SessionController.TOTAL_COUNT_HEADER)
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 200;
+
+    private static final Set<String> SORTABLE_PROPERTIES = new HashSet<>(Arrays.asList("date", "id", "name", "createdAt"));
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final SessionListCache sessionListCache;
+    private final ObjectMapper objectMapper;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             SessionListCache sessionListCache,
+                             ObjectMapper objectMapper) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.sessionListCache = sessionListCache;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest webRequest) {
         try {
             Session session = this.sessionService.getById(Long.valueOf(id));
 
@@ -36,26 +72,91 @@ public class SessionController {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            if (webRequest.checkNotModified(EntityTags.of(session.getId(), session.getUpdatedAt()), EntityTags.lastModified(session.getUpdatedAt()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            List<Long> userIds = this.sessionService.findParticipantIds(Collections.singletonList(session)).get(session.getId());
+            return ResponseEntity.ok().body(this.sessionMapper.toDto(session, userIds));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public ResponseEntity<?> findAll(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+            @RequestParam(value = "count", defaultValue = "false") boolean count,
+            @PageableDefault(size = 50, sort = {"date", "id"}) Pageable pageable,
+            WebRequest webRequest) throws JsonProcessingException {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new BadRequestException();
+            }
+        }
+
+        String key = SessionListCache.key(from, to, count, pageable);
+        SessionListCache.Snapshot snapshot = this.sessionListCache.get(key);
+
+        if (snapshot == null) {
+            long generation = this.sessionListCache.getGeneration();
+            CollectionVersion version = this.sessionService.getVersion(from, to);
+            if (webRequest.checkNotModified(EntityTags.of(version), EntityTags.lastModified(version.getLastModified()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            Slice<Session> sessions = this.sessionService.findAll(from, to, pageable, count);
+            List<SessionDto> sessionDtos = this.sessionMapper.toDto(sessions.getContent(), this.sessionService.findParticipantIds(sessions.getContent()));
+            Long totalCount = sessions instanceof Page ? ((Page<Session>) sessions).getTotalElements() : null;
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+            snapshot = new SessionListCache.Snapshot(this.objectMapper.writeValueAsBytes(sessionDtos),
+                    EntityTags.of(version), EntityTags.lastModified(version.getLastModified()), totalCount);
+            this.sessionListCache.put(key, snapshot, generation);
+        } else if (webRequest.checkNotModified(snapshot.getEtag(), snapshot.getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (snapshot.getTotalCount() != null) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(snapshot.getTotalCount()));
+        }
+
+        return response.body(snapshot.getBody());
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<?> findAllAfter(@RequestParam(value = "after", required = false) String after,
+                                          @RequestParam(value = "size", defaultValue = "50") int size,
+                                          WebRequest webRequest) {
+        try {
+            SessionCursor cursor = after != null ? SessionCursor.decode(after) : null;
+            int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+
+            CollectionVersion version = this.sessionService.getVersion(null, null);
+            if (webRequest.checkNotModified(EntityTags.of(version), EntityTags.lastModified(version.getLastModified()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            List<Session> sessions = this.sessionService.findAfter(cursor, pageSize + 1);
+            String next = null;
+            if (sessions.size() > pageSize) {
+                sessions = sessions.subList(0, pageSize);
+                next = SessionCursor.of(sessions.get(pageSize - 1)).encode();
+            }
+
+            List<SessionDto> sessionDtos = this.sessionMapper.toDto(sessions, this.sessionService.findParticipantIds(sessions));
+            return ResponseEntity.ok().body(new SessionCursorPageDto(sessionDtos, next));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
-        log.info(sessionDto);
-
         Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
 
-        log.info(session);
+        log.debug("Created session {}", session.getId());
         return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
@@ -89,7 +190,11 @@ public class SessionController {
     @PostMapping("{id}/participate/{userId}")
     public ResponseEntity<?> participate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
         try {
-            this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
+            ParticipationDto participation = this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
+
+            if (participation.getStatus() == ParticipationStatus.WAITLISTED) {
+                return ResponseEntity.accepted().body(participation);
+            }
 
             return ResponseEntity.ok().build();
         } catch (NumberFormatException e) {
@@ -97,6 +202,11 @@ public class SessionController {
         }
     }
 
+    @PostMapping("participate")
+    public ResponseEntity<?> participateAll(@Valid @RequestBody BatchParticipationRequest request) {
+        return ResponseEntity.ok().body(this.sessionService.participateAll(request.getParticipations()));
+    }
+
     @DeleteMapping("{id}/participate/{userId}")
     public ResponseEntity<?> noLongerParticipate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
         try {
@@ -107,4 +217,24 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    @GetMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> getWaitlistPosition(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            return ResponseEntity.ok().body(this.sessionService.getWaitlistPosition(Long.parseLong(id), Long.parseLong(userId)));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.sessionService.leaveWaitlist(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
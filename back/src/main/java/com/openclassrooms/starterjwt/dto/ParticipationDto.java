@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipationDto {
+    private Long sessionId;
+
+    private Long userId;
+
+    private ParticipationStatus status;
+
+    private Long waitlistPosition;
+}
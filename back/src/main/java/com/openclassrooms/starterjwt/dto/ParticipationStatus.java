@@ -0,0 +1,8 @@
+package com.openclassrooms.starterjwt.dto;
+
+public enum ParticipationStatus {
+    BOOKED,
+    WAITLISTED,
+    ALREADY_PARTICIPATING,
+    NOT_FOUND
+}
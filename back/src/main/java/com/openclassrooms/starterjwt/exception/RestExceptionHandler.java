@@ -0,0 +1,23 @@
+package com.openclassrooms.starterjwt.exception;
+
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Sends the message of a {@link BadRequestException} back to the client, which the default error page
+ * would otherwise drop.
+ */
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<MessageResponse> handleBadRequest(BadRequestException e) {
+        if (e.getMessage() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.logging;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+
+/**
+ * Copies the submitting thread's MDC, and so its request id, onto the thread that runs a task.
+ */
+public final class MdcPropagation {
+
+    private MdcPropagation() {
+    }
+
+    public static Runnable propagate(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        if (context == null) {
+            return task;
+        }
+
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            MDC.setContextMap(context);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    MDC.setContextMap(previous);
+                } else {
+                    MDC.clear();
+                }
+            }
+        };
+    }
+}
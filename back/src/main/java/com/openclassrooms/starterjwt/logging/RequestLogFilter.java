@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tags every log line of a request with a request id and logs one line per request:
+ * always for server errors and slow requests, otherwise for a sample of them.
+ * Async requests keep their id across dispatches and are logged once their last dispatch completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLogFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RequestLogFilter.class);
+
+    static final String REQUEST_ID = "requestId";
+
+    private static final String REQUEST_ID_ATTRIBUTE = RequestLogFilter.class.getName() + ".requestId";
+
+    private static final String START_ATTRIBUTE = RequestLogFilter.class.getName() + ".start";
+
+    private final double sampleRate;
+
+    private final long slowThresholdMs;
+
+    public RequestLogFilter(@Value("${oc.app.requestLog.sampleRate}") double sampleRate,
+                            @Value("${oc.app.requestLog.slowThresholdMs}") long slowThresholdMs) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdMs = slowThresholdMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = (String) request.getAttribute(REQUEST_ID_ATTRIBUTE);
+        Long start = (Long) request.getAttribute(START_ATTRIBUTE);
+        if (requestId == null || start == null) {
+            requestId = UUID.randomUUID().toString();
+            start = System.nanoTime();
+            request.setAttribute(REQUEST_ID_ATTRIBUTE, requestId);
+            request.setAttribute(START_ATTRIBUTE, start);
+        }
+
+        MDC.put(REQUEST_ID, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                long durationMs = (System.nanoTime() - start) / 1_000_000;
+                int status = response.getStatus();
+                if (shouldLog(status, durationMs) && logger.isInfoEnabled()) {
+                    logger.info("method={} uri={} status={} durationMs={}", request.getMethod(), request.getRequestURI(), status, durationMs);
+                }
+            }
+            MDC.remove(REQUEST_ID);
+        }
+    }
+
+    boolean shouldLog(int status, long durationMs) {
+        return status >= 500
+                || durationMs >= this.slowThresholdMs
+                || ThreadLocalRandom.current().nextDouble() < this.sampleRate;
+    }
+}
@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
+import com.openclassrooms.starterjwt.services.SessionListCache;
+import com.openclassrooms.starterjwt.services.TeacherCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the hit and miss counters kept by the in-process caches.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+    private final TeacherCache teacherCache;
+    private final SessionListCache sessionListCache;
+    private final JwtTokenCache jwtTokenCache;
+
+    public CacheMetrics(TeacherCache teacherCache,
+                        SessionListCache sessionListCache,
+                        JwtTokenCache jwtTokenCache) {
+        this.teacherCache = teacherCache;
+        this.sessionListCache = sessionListCache;
+        this.jwtTokenCache = jwtTokenCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "teachers", this.teacherCache, TeacherCache::getHits, TeacherCache::getMisses);
+        bindCache(registry, "sessionLists", this.sessionListCache, SessionListCache::getHits, SessionListCache::getMisses);
+        bindCache(registry, "jwtTokens", this.jwtTokenCache, JwtTokenCache::getHits, JwtTokenCache::getMisses);
+    }
+
+    private static <T> void bindCache(MeterRegistry registry, String name, T cache,
+                                      ToDoubleFunction<T> hits, ToDoubleFunction<T> misses) {
+        FunctionCounter.builder("cache.gets", cache, hits)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, misses)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+    }
+}
@@ -0,0 +1,100 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records how many SQL statements each request issued, tagged like {@code http.server.requests},
+ * and flags requests that go over the statement budget. Runs ahead of the security filter chain so the
+ * principal lookup is counted, and records async requests once their last dispatch completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class StatementCountFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCountFilter.class);
+
+    static final String METRIC_NAME = "hibernate.statements.per.request";
+
+    private static final String COUNT_ATTRIBUTE = StatementCountFilter.class.getName() + ".count";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int budget;
+
+    private final boolean failOnExceed;
+
+    public StatementCountFilter(MeterRegistry meterRegistry,
+                                @Value("${oc.app.statementBudget.maxPerRequest}") int budget,
+                                @Value("${oc.app.statementBudget.failOnExceed}") boolean failOnExceed) {
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AtomicInteger count = (AtomicInteger) request.getAttribute(COUNT_ATTRIBUTE);
+        if (count == null) {
+            count = StatementCounter.start();
+            request.setAttribute(COUNT_ATTRIBUTE, count);
+        } else {
+            StatementCounter.resume(count);
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StatementCounter.stop();
+            if (!isAsyncStarted(request)) {
+                record(request, count.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        boolean overBudget = statements > this.budget;
+        String uri = uri(request);
+
+        DistributionSummary.builder(METRIC_NAME)
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .tag("overBudget", String.valueOf(overBudget))
+                .register(this.meterRegistry)
+                .record(statements);
+
+        if (overBudget) {
+            logger.warn("{} {} issued {} SQL statements, over the budget of {}", request.getMethod(), uri, statements, this.budget);
+            if (this.failOnExceed) {
+                throw new IllegalStateException(request.getMethod() + " " + uri + " issued " + statements
+                        + " SQL statements, over the budget of " + this.budget);
+            }
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "USERS", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "email")
+    @UniqueConstraint(name = User.EMAIL_UNIQUE_KEY, columnNames = "email")
 })
 @Data
 @Accessors(chain = true)
@@ -23,10 +23,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @RequiredArgsConstructor
 @AllArgsConstructor
-@ToString
+@ToString(of = {"id"})
 public class User {
+  public static final String EMAIL_UNIQUE_KEY = "uk_users_email";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "users_id")
+  @TableGenerator(name = "users_id", table = "ID_GENERATOR", pkColumnName = "gen_name", valueColumnName = "next_val",
+      pkColumnValue = "USERS", allocationSize = 50)
   private Long id;
 
   @NonNull
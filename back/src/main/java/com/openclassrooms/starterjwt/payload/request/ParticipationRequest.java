@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import javax.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipationRequest {
+  @NotNull
+  private Long sessionId;
+
+  @NotNull
+  private Long userId;
+}
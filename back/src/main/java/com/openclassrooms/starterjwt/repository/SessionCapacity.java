@@ -0,0 +1,7 @@
+package com.openclassrooms.starterjwt.repository;
+
+public interface SessionCapacity {
+    Long getId();
+
+    Integer getCapacity();
+}
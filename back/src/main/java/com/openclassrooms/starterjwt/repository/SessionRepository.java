@@ -1,9 +1,70 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface SessionRepository  extends JpaRepository<Session, Long> {
+public interface SessionRepository  extends JpaRepository<Session, Long>, SessionRepositoryCustom {
+    @Query("select s from Session s left join fetch s.teacher where (:from is null or s.date >= :from) and (:to is null or s.date < :to)")
+    Slice<Session> findSliceByDateWindow(@Param("from") Date from, @Param("to") Date to, Pageable pageable);
+
+    @Query(value = "select s from Session s left join fetch s.teacher where (:from is null or s.date >= :from) and (:to is null or s.date < :to)",
+            countQuery = "select count(s) from Session s where (:from is null or s.date >= :from) and (:to is null or s.date < :to)")
+    Page<Session> findPageByDateWindow(@Param("from") Date from, @Param("to") Date to, Pageable pageable);
+
+    @Query("select count(s) as count, max(s.updatedAt) as lastModified from Session s where (:from is null or s.date >= :from) and (:to is null or s.date < :to)")
+    CollectionVersion findVersionByDateWindow(@Param("from") Date from, @Param("to") Date to);
+
+    @Query("select s from Session s left join fetch s.teacher order by s.date asc, s.id asc")
+    List<Session> findSeekFirst(Pageable pageable);
+
+    @Query("select s from Session s left join fetch s.teacher where s.date > :date or (s.date = :date and s.id > :id) order by s.date asc, s.id asc")
+    List<Session> findSeekAfter(@Param("date") Date date, @Param("id") Long id, Pageable pageable);
+
+    @Query(value = "SELECT session_id AS sessionId, user_id AS userId FROM PARTICIPATE WHERE session_id IN :ids ORDER BY session_id, user_id", nativeQuery = true)
+    List<SessionParticipant> findParticipants(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT COUNT(*) FROM PARTICIPATE WHERE session_id = :id", nativeQuery = true)
+    long countParticipants(@Param("id") Long id);
+
+    @Query(value = "SELECT id, capacity FROM SESSIONS WHERE id = :id", nativeQuery = true)
+    Optional<SessionCapacity> findCapacity(@Param("id") Long id);
+
+    @Query(value = "SELECT id, capacity FROM SESSIONS WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<SessionCapacity> lockCapacity(@Param("id") Long id);
+
+    @Query(value = "SELECT COUNT(*) FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId", nativeQuery = true)
+    long countParticipation(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Query("select u.id from Session s join s.users u where s.id = :sessionId and u.id in :userIds")
+    List<Long> findParticipantIds(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO PARTICIPATE (session_id, user_id) VALUES (:sessionId, :userId)", nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId", nativeQuery = true)
+    int removeParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE SESSIONS SET updated_at = :now WHERE id = :id", nativeQuery = true)
+    int touch(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
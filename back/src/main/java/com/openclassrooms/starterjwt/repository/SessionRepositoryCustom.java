@@ -0,0 +1,8 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface SessionRepositoryCustom {
+    int addParticipants(Map<Long, ? extends Collection<Long>> userIdsBySession);
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class SessionRepositoryImpl implements SessionRepositoryCustom {
+    private static final String INSERT_PARTICIPANT = "INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int addParticipants(Map<Long, ? extends Collection<Long>> userIdsBySession) {
+        List<Object[]> rows = new ArrayList<>();
+        userIdsBySession.forEach((sessionId, userIds) ->
+                userIds.forEach(userId -> rows.add(new Object[]{sessionId, userId})));
+
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        return this.jdbcTemplate.batchUpdate(INSERT_PARTICIPANT, rows).length;
+    }
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records how many hashes were computed and how long they took, so the cost factor
+ * can be tuned against measured login latency.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+  private final PasswordEncoder delegate;
+
+  private final AtomicLong encodeCount = new AtomicLong();
+
+  private final AtomicLong encodeNanos = new AtomicLong();
+
+  private final AtomicLong matchesCount = new AtomicLong();
+
+  private final AtomicLong matchesNanos = new AtomicLong();
+
+  public TimedPasswordEncoder(PasswordEncoder delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    long start = System.nanoTime();
+    try {
+      return delegate.encode(rawPassword);
+    } finally {
+      encodeNanos.addAndGet(System.nanoTime() - start);
+      encodeCount.incrementAndGet();
+    }
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    long start = System.nanoTime();
+    try {
+      return delegate.matches(rawPassword, encodedPassword);
+    } finally {
+      matchesNanos.addAndGet(System.nanoTime() - start);
+      matchesCount.incrementAndGet();
+    }
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  public void registerMeters(MeterRegistry registry) {
+    FunctionTimer.builder("password.encoder", this, TimedPasswordEncoder::getEncodeCount,
+            TimedPasswordEncoder::getEncodeNanos, TimeUnit.NANOSECONDS)
+        .tag("operation", "encode")
+        .register(registry);
+    FunctionTimer.builder("password.encoder", this, TimedPasswordEncoder::getMatchesCount,
+            TimedPasswordEncoder::getMatchesNanos, TimeUnit.NANOSECONDS)
+        .tag("operation", "matches")
+        .register(registry);
+  }
+
+  public long getEncodeCount() {
+    return encodeCount.get();
+  }
+
+  public long getEncodeNanos() {
+    return encodeNanos.get();
+  }
+
+  public long getMatchesCount() {
+    return matchesCount.get();
+  }
+
+  public long getMatchesNanos() {
+    return matchesNanos.get();
+  }
+}
@@ -1,8 +1,19 @@
 package com.openclassrooms.starterjwt.security;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -11,13 +22,19 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.openclassrooms.starterjwt.logging.MdcPropagation;
+import com.openclassrooms.starterjwt.metrics.StatementCounter;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(
@@ -31,6 +48,21 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Autowired
+  private ObjectProvider<MeterRegistry> meterRegistry;
+
+  @Value("${oc.app.passwordEncoder}")
+  private String passwordEncoderId;
+
+  @Value("${oc.app.bcryptStrength}")
+  private int bcryptStrength;
+
+  @Value("${oc.app.passwordHashing.poolSize}")
+  private int passwordHashingPoolSize;
+
+  @Value("${oc.app.passwordHashing.queueCapacity}")
+  private int passwordHashingQueueCapacity;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -49,7 +81,45 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    TimedPasswordEncoder passwordEncoder = new TimedPasswordEncoder(delegatingPasswordEncoder(passwordEncoderId, bcryptStrength));
+    // Registered from here rather than through a MeterBinder: the registry must not depend on this configuration,
+    // which itself depends on the web MVC metrics that need the registry.
+    meterRegistry.ifAvailable(passwordEncoder::registerMeters);
+    return passwordEncoder;
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor passwordHashingExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(passwordHashingPoolSize);
+    executor.setMaxPoolSize(passwordHashingPoolSize);
+    executor.setQueueCapacity(passwordHashingQueueCapacity);
+    executor.setThreadNamePrefix("password-hashing-");
+    executor.setTaskDecorator(task -> StatementCounter.propagate(MdcPropagation.propagate(task)));
+    return executor;
+  }
+
+  // Declaring passwordHashingExecutor switches off Boot's applicationTaskExecutor; it is restored here so that
+  // @Async and MVC async work keep running on it rather than on the hashing pool.
+  @Lazy
+  @Primary
+  @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+      AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+  public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+    return builder.build();
+  }
+
+  static PasswordEncoder delegatingPasswordEncoder(String idForEncode, int bcryptStrength) {
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    encoders.put("bcrypt", bcrypt);
+    encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+
+    DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+    // Hashes stored before encoder ids were introduced are plain bcrypt.
+    passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return passwordEncoder;
   }
 
   @Override
@@ -58,6 +128,8 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
       .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
       .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
       .authorizeRequests().antMatchers("/api/auth/**").permitAll()
+      // Actuator endpoints are only served on the management port, which is never published outside the host.
+      .antMatchers("/actuator/health", "/actuator/prometheus").permitAll()
       .antMatchers("/api/**").authenticated()
       .anyRequest().authenticated();
 
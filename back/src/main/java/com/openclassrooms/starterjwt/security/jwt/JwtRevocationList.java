@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+/**
+ * Users whose tokens must no longer be honoured. An entry only has to outlive the
+ * tokens issued before the revocation, so it is dropped after one token lifetime.
+ */
+@Component
+public class JwtRevocationList {
+  private final Map<Long, Long> revokedUntil = new ConcurrentHashMap<>();
+
+  @Value("${oc.app.jwtExpirationMs}")
+  private int jwtExpirationMs;
+
+  public void revoke(Long userId) {
+    long now = System.currentTimeMillis();
+    revokedUntil.values().removeIf(until -> until <= now);
+    revokedUntil.put(userId, now + jwtExpirationMs);
+  }
+
+  public boolean isRevoked(UserDetails userDetails) {
+    if (!(userDetails instanceof UserDetailsImpl)) {
+      return false;
+    }
+
+    Long until = revokedUntil.get(((UserDetailsImpl) userDetails).getId());
+    return until != null && until > System.currentTimeMillis();
+  }
+}
@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.cache.ExpiringCache;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+/**
+ * Remembers the principal of already verified tokens, keyed by the token digest,
+ * until the token expires or its user is deleted.
+ */
+@Component
+public class JwtTokenCache {
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  });
+
+  private final ExpiringCache<String, UserDetails> cache;
+
+  public JwtTokenCache(@Value("${oc.app.jwtCacheMaxSize}") int maxSize) {
+    this.cache = new ExpiringCache<>(maxSize);
+  }
+
+  public UserDetails get(String token) {
+    return cache.get(digest(token));
+  }
+
+  public void put(String token, UserDetails userDetails, Date expiration) {
+    if (expiration == null) {
+      return;
+    }
+    cache.put(digest(token), userDetails, expiration.getTime());
+  }
+
+  public void evictUser(Long userId) {
+    cache.removeIf(userDetails -> userDetails instanceof UserDetailsImpl
+        && Objects.equals(((UserDetailsImpl) userDetails).getId(), userId));
+  }
+
+  public long getHits() {
+    return cache.getHits();
+  }
+
+  public long getMisses() {
+    return cache.getMisses();
+  }
+
+  private static String digest(String token) {
+    return Base64.getEncoder().encodeToString(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+  }
+}
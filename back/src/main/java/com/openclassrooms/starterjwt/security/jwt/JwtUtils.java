@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.security.jwt;
 
 import java.util.Date;
 
+import javax.annotation.PostConstruct;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,49 +13,99 @@ import org.springframework.stereotype.Component;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Component
 public class JwtUtils {
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+  static final String ID_CLAIM = "id";
+  static final String FIRST_NAME_CLAIM = "firstName";
+  static final String LAST_NAME_CLAIM = "lastName";
+  static final String ADMIN_CLAIM = "admin";
+
   @Value("${oc.app.jwtSecret}")
   private String jwtSecret;
 
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  @Value("${oc.app.jwtStatelessPrincipal}")
+  private boolean statelessPrincipal;
+
+  private byte[] signingKey;
+
+  private JwtParser jwtParser;
+
+  @PostConstruct
+  public void init() {
+    signingKey = TextCodec.BASE64.decode(jwtSecret);
+    jwtParser = Jwts.parser().setSigningKey(signingKey);
+  }
+
   public String generateJwtToken(Authentication authentication) {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
-    return Jwts.builder()
+    JwtBuilder builder = Jwts.builder()
         .setSubject((userPrincipal.getUsername()))
         .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+
+    if (statelessPrincipal) {
+      builder.claim(ID_CLAIM, userPrincipal.getId())
+          .claim(FIRST_NAME_CLAIM, userPrincipal.getFirstName())
+          .claim(LAST_NAME_CLAIM, userPrincipal.getLastName())
+          .claim(ADMIN_CLAIM, userPrincipal.getAdmin());
+    }
+
+    return builder
+        .signWith(SignatureAlgorithm.HS512, signingKey)
         .compact();
   }
 
-  public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+  public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+    Number id = claims.get(ID_CLAIM, Number.class);
+    if (!statelessPrincipal || id == null) {
+      return null;
+    }
+
+    return UserDetailsImpl
+        .builder()
+        .id(id.longValue())
+        .username(claims.getSubject())
+        .firstName(claims.get(FIRST_NAME_CLAIM, String.class))
+        .lastName(claims.get(LAST_NAME_CLAIM, String.class))
+        .admin(claims.get(ADMIN_CLAIM, Boolean.class))
+        .build();
   }
 
-  public boolean validateJwtToken(String authToken) {
+  public JwtParseResult parseJwtToken(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return JwtParseResult.valid(jwtParser.parseClaimsJws(authToken).getBody());
     } catch (SignatureException e) {
       logger.error("Invalid JWT signature: {}", e.getMessage());
+      return JwtParseResult.invalid(JwtParseResult.Failure.INVALID_SIGNATURE);
     } catch (MalformedJwtException e) {
       logger.error("Invalid JWT token: {}", e.getMessage());
+      return JwtParseResult.invalid(JwtParseResult.Failure.MALFORMED);
     } catch (ExpiredJwtException e) {
       logger.error("JWT token is expired: {}", e.getMessage());
+      return JwtParseResult.invalid(JwtParseResult.Failure.EXPIRED);
     } catch (UnsupportedJwtException e) {
       logger.error("JWT token is unsupported: {}", e.getMessage());
+      return JwtParseResult.invalid(JwtParseResult.Failure.UNSUPPORTED);
     } catch (IllegalArgumentException e) {
       logger.error("JWT claims string is empty: {}", e.getMessage());
+      return JwtParseResult.invalid(JwtParseResult.Failure.EMPTY);
     }
+  }
 
-    return false;
+  public String getUserNameFromJwtToken(String token) {
+    return jwtParser.parseClaimsJws(token).getBody().getSubject();
+  }
+
+  public boolean validateJwtToken(String authToken) {
+    return parseJwtToken(authToken).isValid();
   }
 }
@@ -0,0 +1,112 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.cache.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-rendered JSON pages of the session list. Every session or participation write bumps the
+ * generation, so a page rendered from data read before the write is never stored.
+ */
+@Component
+public class SessionListCache {
+    private final long ttlMs;
+
+    private final ExpiringCache<String, Snapshot> snapshots;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public SessionListCache(@Value("${oc.app.sessionListCacheTtlMs}") long ttlMs,
+                            @Value("${oc.app.sessionListCacheMaxSize}") int maxSize) {
+        this.ttlMs = ttlMs;
+        this.snapshots = new ExpiringCache<>(maxSize);
+    }
+
+    public static String key(Date from, Date to, boolean count, Pageable pageable) {
+        return (from != null ? from.getTime() : "") + "|" + (to != null ? to.getTime() : "") + "|" + count
+                + "|" + pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort();
+    }
+
+    public Snapshot get(String key) {
+        return this.snapshots.get(key);
+    }
+
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    public void put(String key, Snapshot snapshot, long generation) {
+        synchronized (this.generation) {
+            if (this.generation.get() == generation) {
+                this.snapshots.put(key, snapshot, System.currentTimeMillis() + this.ttlMs);
+            }
+        }
+    }
+
+    public void invalidate() {
+        clear();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        }
+    }
+
+    public long getHits() {
+        return this.snapshots.getHits();
+    }
+
+    public long getMisses() {
+        return this.snapshots.getMisses();
+    }
+
+    private void clear() {
+        synchronized (this.generation) {
+            this.generation.incrementAndGet();
+            this.snapshots.clear();
+        }
+    }
+
+    public static final class Snapshot {
+        private final byte[] body;
+
+        private final String etag;
+
+        private final long lastModified;
+
+        private final Long totalCount;
+
+        public Snapshot(byte[] body, String etag, long lastModified, Long totalCount) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.totalCount = totalCount;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public Long getTotalCount() {
+            return totalCount;
+        }
+    }
+}
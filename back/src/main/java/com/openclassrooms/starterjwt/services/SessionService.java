@@ -1,78 +1,266 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.ParticipationDto;
+import com.openclassrooms.starterjwt.dto.ParticipationStatus;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.payload.request.ParticipationRequest;
+import com.openclassrooms.starterjwt.repository.CollectionVersion;
+import com.openclassrooms.starterjwt.repository.SessionCapacity;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
     private final SessionRepository sessionRepository;
 
+    private final WaitlistRepository waitlistRepository;
+
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final SessionListCache sessionListCache;
+
+    public SessionService(SessionRepository sessionRepository,
+                          WaitlistRepository waitlistRepository,
+                          UserRepository userRepository,
+                          SessionListCache sessionListCache) {
         this.sessionRepository = sessionRepository;
+        this.waitlistRepository = waitlistRepository;
         this.userRepository = userRepository;
+        this.sessionListCache = sessionListCache;
     }
 
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        checkSeats(session);
+        Session created = this.sessionRepository.save(session);
+        this.sessionListCache.invalidate();
+        return created;
     }
 
     public void delete(Long id) {
         this.sessionRepository.deleteById(id);
+        this.sessionListCache.invalidate();
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<Session> findAll(Date from, Date to, Pageable pageable, boolean withCount) {
+        return withCount
+                ? this.sessionRepository.findPageByDateWindow(from, to, pageable)
+                : this.sessionRepository.findSliceByDateWindow(from, to, pageable);
     }
 
-    public List<Session> findAll() {
-        return this.sessionRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<Session> findAfter(SessionCursor cursor, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        return cursor == null
+                ? this.sessionRepository.findSeekFirst(pageable)
+                : this.sessionRepository.findSeekAfter(cursor.getDate(), cursor.getId(), pageable);
+    }
+
+    public CollectionVersion getVersion(Date from, Date to) {
+        return this.sessionRepository.findVersionByDateWindow(from, to);
+    }
+
+    public Map<Long, List<Long>> findParticipantIds(List<Session> sessions) {
+        Map<Long, List<Long>> participantIds = new HashMap<>();
+        if (sessions.isEmpty()) {
+            return participantIds;
+        }
+
+        List<Long> ids = sessions.stream().map(Session::getId).collect(Collectors.toList());
+        for (SessionParticipant participant : this.sessionRepository.findParticipants(ids)) {
+            participantIds.computeIfAbsent(participant.getSessionId(), id -> new ArrayList<>()).add(participant.getUserId());
+        }
+        return participantIds;
     }
 
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
+    @Transactional
     public Session update(Long id, Session session) {
+        checkSeats(session);
+        if (session.getCapacity() != null
+                && this.sessionRepository.lockCapacity(id).isPresent()
+                && this.sessionRepository.countParticipants(id) > session.getCapacity()) {
+            throw new BadRequestException();
+        }
+
         session.setId(id);
-        return this.sessionRepository.save(session);
+        Session updated = this.sessionRepository.save(session);
+        this.sessionListCache.invalidate();
+        return updated;
     }
 
-    public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
+    @Transactional
+    public ParticipationDto participate(Long id, Long userId) {
+        SessionCapacity session = findCapacity(id);
+
+        if (session.getCapacity() != null && this.sessionRepository.countParticipants(id) >= session.getCapacity()) {
+            if (this.sessionRepository.countParticipation(id, userId) > 0) {
+                throw new BadRequestException();
+            }
+
+            return joinWaitlist(id, userId);
+        }
+
+        try {
+            this.sessionRepository.addParticipant(id, userId);
+        } catch (DataIntegrityViolationException e) {
+            if (this.sessionRepository.countParticipation(id, userId) > 0) {
+                throw new BadRequestException();
+            }
+
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
-            throw new BadRequestException();
+        if (session.getCapacity() != null) {
+            this.waitlistRepository.deleteBySessionIdAndUserId(id, userId);
+        }
+        this.sessionRepository.touch(id, LocalDateTime.now());
+        this.sessionListCache.invalidate();
+
+        return new ParticipationDto(id, userId, ParticipationStatus.BOOKED, null);
+    }
+
+    @Transactional
+    public List<ParticipationDto> participateAll(List<ParticipationRequest> requests) {
+        // Sessions are locked in id order so that concurrent batches cannot deadlock on each other.
+        Map<Long, Set<Long>> usersBySession = new TreeMap<>();
+        for (ParticipationRequest request : requests) {
+            usersBySession.computeIfAbsent(request.getSessionId(), id -> new LinkedHashSet<>()).add(request.getUserId());
+        }
+
+        Set<Long> userIds = requests.stream().map(ParticipationRequest::getUserId).collect(Collectors.toSet());
+        Set<Long> knownUsers = new HashSet<>(this.userRepository.findExistingIds(userIds));
+
+        Map<Long, Map<Long, ParticipationDto>> results = new HashMap<>();
+        Map<Long, List<Long>> bookings = new LinkedHashMap<>();
+        for (Map.Entry<Long, Set<Long>> entry : usersBySession.entrySet()) {
+            Long id = entry.getKey();
+            Map<Long, ParticipationDto> outcomes = new HashMap<>();
+            results.put(id, outcomes);
+
+            SessionCapacity session = this.sessionRepository.lockCapacity(id).orElse(null);
+            if (session == null) {
+                entry.getValue().forEach(userId -> outcomes.put(userId, new ParticipationDto(id, userId, ParticipationStatus.NOT_FOUND, null)));
+                continue;
+            }
+
+            Set<Long> participants = new HashSet<>(this.sessionRepository.findParticipantIds(id, entry.getValue()));
+            long freeSeats = session.getCapacity() != null
+                    ? session.getCapacity() - this.sessionRepository.countParticipants(id)
+                    : Long.MAX_VALUE;
+
+            List<Long> booked = new ArrayList<>();
+            for (Long userId : entry.getValue()) {
+                if (!knownUsers.contains(userId)) {
+                    outcomes.put(userId, new ParticipationDto(id, userId, ParticipationStatus.NOT_FOUND, null));
+                } else if (participants.contains(userId)) {
+                    outcomes.put(userId, new ParticipationDto(id, userId, ParticipationStatus.ALREADY_PARTICIPATING, null));
+                } else if (freeSeats > 0) {
+                    freeSeats--;
+                    booked.add(userId);
+                    outcomes.put(userId, new ParticipationDto(id, userId, ParticipationStatus.BOOKED, null));
+                } else {
+                    outcomes.put(userId, joinWaitlist(id, userId));
+                }
+            }
+
+            if (!booked.isEmpty()) {
+                bookings.put(id, booked);
+                if (session.getCapacity() != null) {
+                    this.waitlistRepository.deleteBySessionIdAndUserIdIn(id, booked);
+                }
+                this.sessionRepository.touch(id, LocalDateTime.now());
+            }
         }
 
-        session.getUsers().add(user);
+        if (!bookings.isEmpty()) {
+            this.sessionRepository.addParticipants(bookings);
+            this.sessionListCache.invalidate();
+        }
 
-        this.sessionRepository.save(session);
+        return requests.stream()
+                .map(request -> results.get(request.getSessionId()).get(request.getUserId()))
+                .collect(Collectors.toList());
     }
 
+    @Transactional
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+        SessionCapacity session = findCapacity(id);
+
+        if (this.sessionRepository.removeParticipant(id, userId) == 0) {
+            throw new BadRequestException();
+        }
+
+        if (session.getCapacity() != null && this.sessionRepository.countParticipants(id) < session.getCapacity()) {
+            this.waitlistRepository.findFirstBySessionIdOrderByIdAsc(id).ifPresent(next -> {
+                this.waitlistRepository.delete(next);
+                this.sessionRepository.addParticipant(id, next.getUserId());
+            });
+        }
+        this.sessionRepository.touch(id, LocalDateTime.now());
+        this.sessionListCache.invalidate();
+    }
+
+    public ParticipationDto getWaitlistPosition(Long id, Long userId) {
+        WaitlistEntry entry = this.waitlistRepository.findBySessionIdAndUserId(id, userId).orElseThrow(NotFoundException::new);
+
+        return toWaitlisted(entry);
+    }
+
+    public void leaveWaitlist(Long id, Long userId) {
+        if (this.waitlistRepository.deleteBySessionIdAndUserId(id, userId) == 0) {
             throw new NotFoundException();
         }
+    }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
-            throw new BadRequestException();
+    private ParticipationDto joinWaitlist(Long id, Long userId) {
+        WaitlistEntry entry = this.waitlistRepository.findBySessionIdAndUserId(id, userId).orElse(null);
+        if (entry == null) {
+            try {
+                entry = this.waitlistRepository.saveAndFlush(new WaitlistEntry().setSessionId(id).setUserId(userId));
+            } catch (DataIntegrityViolationException e) {
+                throw new NotFoundException();
+            }
         }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
+        return toWaitlisted(entry);
+    }
+
+    private ParticipationDto toWaitlisted(WaitlistEntry entry) {
+        long position = this.waitlistRepository.countBySessionIdAndIdLessThanEqual(entry.getSessionId(), entry.getId());
 
-        this.sessionRepository.save(session);
+        return new ParticipationDto(entry.getSessionId(), entry.getUserId(), ParticipationStatus.WAITLISTED, position);
+    }
+
+    // Only a capped session's row is locked: without a capacity there is no seat count to protect.
+    private SessionCapacity findCapacity(Long id) {
+        SessionCapacity session = this.sessionRepository.findCapacity(id).orElseThrow(NotFoundException::new);
+        return session.getCapacity() != null
+                ? this.sessionRepository.lockCapacity(id).orElseThrow(NotFoundException::new)
+                : session;
+    }
+
+    private static void checkSeats(Session session) {
+        if (session.getCapacity() != null && session.getUsers() != null && session.getUsers().size() > session.getCapacity()) {
+            throw new BadRequestException();
+        }
     }
 }
@@ -0,0 +1,84 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.cache.ExpiringCache;
+import com.openclassrooms.starterjwt.models.Teacher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process copy of the teacher catalog, emptied whenever a teacher is written. Every write bumps the
+ * generation, so teachers read before the write are never stored.
+ */
+@Component
+public class TeacherCache {
+    private static final String CATALOG_KEY = "all";
+
+    private final long ttlMs;
+
+    private final ExpiringCache<Long, Teacher> teachers;
+
+    private final ExpiringCache<String, List<Teacher>> catalog;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public TeacherCache(@Value("${oc.app.teacherCacheTtlMs}") long ttlMs,
+                        @Value("${oc.app.teacherCacheMaxSize}") int maxSize) {
+        this.ttlMs = ttlMs;
+        this.teachers = new ExpiringCache<>(maxSize);
+        this.catalog = new ExpiringCache<>(1);
+    }
+
+    public Teacher get(Long id) {
+        return this.teachers.get(id);
+    }
+
+    public void put(Teacher teacher, long generation) {
+        synchronized (this.generation) {
+            if (this.generation.get() == generation) {
+                this.teachers.put(teacher.getId(), teacher, expiresAt());
+            }
+        }
+    }
+
+    public List<Teacher> getAll() {
+        return this.catalog.get(CATALOG_KEY);
+    }
+
+    public void putAll(List<Teacher> teachers, long generation) {
+        long expiresAt = expiresAt();
+        synchronized (this.generation) {
+            if (this.generation.get() == generation) {
+                this.catalog.put(CATALOG_KEY, Collections.unmodifiableList(teachers), expiresAt);
+                teachers.forEach(teacher -> this.teachers.put(teacher.getId(), teacher, expiresAt));
+            }
+        }
+    }
+
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    public void invalidate() {
+        synchronized (this.generation) {
+            this.generation.incrementAndGet();
+            this.catalog.clear();
+            this.teachers.clear();
+        }
+    }
+
+    public long getHits() {
+        return this.teachers.getHits() + this.catalog.getHits();
+    }
+
+    public long getMisses() {
+        return this.teachers.getMisses() + this.catalog.getMisses();
+    }
+
+    private long expiresAt() {
+        return System.currentTimeMillis() + this.ttlMs;
+    }
+}
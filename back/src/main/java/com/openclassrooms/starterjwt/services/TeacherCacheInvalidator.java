@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Teacher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA listener on {@link Teacher} that drops the cached catalog on every write,
+ * and once more after commit so a concurrent read cannot re-cache the old row.
+ */
+@Component
+public class TeacherCacheInvalidator {
+    private final TeacherCache teacherCache;
+
+    public TeacherCacheInvalidator(TeacherCache teacherCache) {
+        this.teacherCache = teacherCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Teacher teacher) {
+        this.teacherCache.invalidate();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    teacherCache.invalidate();
+                }
+            });
+        }
+    }
+}
@@ -4,21 +4,39 @@ import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
 
 @Service
 public class TeacherService {
     private final TeacherRepository teacherRepository;
 
-    public TeacherService(TeacherRepository teacherRepository) {
+    private final TeacherCache teacherCache;
+
+    public TeacherService(TeacherRepository teacherRepository, TeacherCache teacherCache) {
         this.teacherRepository = teacherRepository;
+        this.teacherCache = teacherCache;
     }
 
     public List<Teacher> findAll() {
-        return this.teacherRepository.findAll();
+        List<Teacher> teachers = this.teacherCache.getAll();
+        if (teachers == null) {
+            long generation = this.teacherCache.getGeneration();
+            teachers = Collections.unmodifiableList(this.teacherRepository.findAll());
+            this.teacherCache.putAll(teachers, generation);
+        }
+        return teachers;
     }
 
     public Teacher findById(Long id) {
-        return this.teacherRepository.findById(id).orElse(null);
+        Teacher teacher = this.teacherCache.get(id);
+        if (teacher == null) {
+            long generation = this.teacherCache.getGeneration();
+            teacher = this.teacherRepository.findById(id).orElse(null);
+            if (teacher != null) {
+                this.teacherCache.put(teacher, generation);
+            }
+        }
+        return teacher;
     }
 }
@@ -1,22 +1,57 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final JwtTokenCache jwtTokenCache;
+
+    private final JwtRevocationList jwtRevocationList;
+
+    public UserService(UserRepository userRepository,
+                       JwtTokenCache jwtTokenCache,
+                       JwtRevocationList jwtRevocationList) {
         this.userRepository = userRepository;
+        this.jwtTokenCache = jwtTokenCache;
+        this.jwtRevocationList = jwtRevocationList;
     }
 
     public void delete(Long id) {
         this.userRepository.deleteById(id);
+        this.jwtRevocationList.revoke(id);
+        this.jwtTokenCache.evictUser(id);
     }
 
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    public List<User> findAllById(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        if (distinctIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, User> users = this.userRepository.findAllById(distinctIds.stream().filter(Objects::nonNull).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Long> unknownIds = distinctIds.stream().filter(id -> !users.containsKey(id)).collect(Collectors.toList());
+        if (!unknownIds.isEmpty()) {
+            throw new BadRequestException("Unknown user ids: " + unknownIds);
+        }
+
+        return distinctIds.stream().map(users::get).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("h2")
+class SpringBootSecurityJwtApplicationContextTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    @Qualifier("passwordHashingExecutor")
+    private ThreadPoolTaskExecutor passwordHashingExecutor;
+
+    @Test
+    void contextLoads() {
+        assertThat(meterRegistry.find("password.encoder").functionTimers()).hasSize(2);
+        assertThat(meterRegistry.find("cache.gets").functionCounters()).hasSize(6);
+    }
+
+    @Test
+    void defaultTaskExecutorIsNotTheHashingPool() {
+        assertThat(taskExecutor).isSameAs(applicationTaskExecutor);
+        assertThat(applicationTaskExecutor).isNotSameAs(passwordHashingExecutor);
+        assertThat(passwordHashingExecutor.getThreadNamePrefix()).isEqualTo("password-hashing-");
+    }
+}
@@ -0,0 +1,96 @@
+package com.openclassrooms.starterjwt.cache;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringCacheTest {
+
+    private static long inOneMinute() {
+        return System.currentTimeMillis() + 60000;
+    }
+
+    @Test
+    @DisplayName("Should return cached value and count hits and misses")
+    void get_countsHitsAndMisses() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+        cache.put("a", "value", inOneMinute());
+
+        assertThat(cache.get("a")).isEqualTo("value");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not return expired entries")
+    void get_expiredEntry_returnsNull() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+        cache.put("a", "value", System.currentTimeMillis() - 1);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entry when full")
+    void put_overMaxSize_evictsEldest() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2);
+        cache.put("a", "1", inOneMinute());
+        cache.put("b", "2", inOneMinute());
+        cache.get("a");
+        cache.put("c", "3", inOneMinute());
+
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("3");
+    }
+
+    @Test
+    @DisplayName("Should stay within max size under concurrent puts")
+    void put_concurrently_staysBounded() throws InterruptedException {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(50);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            int key = i;
+            executor.execute(() -> {
+                cache.put(key, key, inOneMinute());
+                cache.get(key);
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(cache.size()).isLessThanOrEqualTo(50);
+        assertThat(cache.getHits() + cache.getMisses()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should remove matching entries")
+    void removeIf_removesMatchingValues() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+        cache.put("a", "keep", inOneMinute());
+        cache.put("b", "drop", inOneMinute());
+
+        cache.removeIf("drop"::equals);
+
+        assertThat(cache.get("a")).isEqualTo("keep");
+        assertThat(cache.get("b")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should clear all entries")
+    void clear_removesEverything() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+        cache.put("a", "1", inOneMinute());
+
+        cache.clear();
+
+        assertThat(cache.size()).isZero();
+    }
+}
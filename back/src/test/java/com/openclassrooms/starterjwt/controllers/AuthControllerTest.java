@@ -1,12 +1,12 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper; // Sérialisation/désérialisation JSON
-import com.openclassrooms.starterjwt.models.User; // Entité User utilisée dans les tests
 import com.openclassrooms.starterjwt.payload.request.LoginRequest; // DTO pour la connexion
 import com.openclassrooms.starterjwt.payload.request.SignupRequest; // DTO pour l'inscription
 import com.openclassrooms.starterjwt.repository.UserRepository; // Répertoire mocké
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils; // Utilitaire JWT mocké
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl; // Détails utilisateur utilisés pour l'authentification
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,12 +20,22 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc; // Client HTTP simulé
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.RequestBuilder;
 
-import java.util.Optional;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
 
 import static org.mockito.ArgumentMatchers.*; // Utilitaires Mockito pour matcher les arguments
 import static org.mockito.Mockito.*; // Méthodes Mockito (when, thenReturn...)
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch; // Reprise d'une requête asynchrone
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post; // Construction de requêtes POST
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*; // Assertions sur la réponse
 
@@ -51,6 +61,14 @@ public class AuthControllerTest {
     @MockBean
     private UserRepository userRepository; // Répertoire d'utilisateurs mocké
 
+    // Les endpoints d'authentification sont asynchrones : on attend le résultat puis on rejoue la requête.
+    private ResultActions dispatch(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
     @BeforeEach
     void setUp() {
         UserDetailsImpl userDetails = UserDetailsImpl.builder() // Création d'un utilisateur factice
@@ -74,18 +92,13 @@ public class AuthControllerTest {
         loginRequest.setEmail("test@test.com");
         loginRequest.setPassword("password");
 
-        User user = new User();
-        user.setId(1L);
-        user.setEmail("test@test.com");
-        user.setAdmin(false);
-
-        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user)); // L'utilisateur existe en base
-
-        mockMvc.perform(post("/api/auth/login")
+        dispatch(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest))) // Envoie de la requête
             .andExpect(status().isOk()) // Doit réussir
             .andExpect(jsonPath("$.token").value("fake-jwt-token")); // Le token renvoyé est celui du mock
+
+        verify(userRepository, never()).findByEmail(anyString()); // La réponse est construite depuis le principal authentifié
     }
 
     @Test
@@ -94,11 +107,6 @@ public class AuthControllerTest {
         loginRequest.setEmail("admin@test.com");
         loginRequest.setPassword("password");
 
-        User user = new User();
-        user.setId(1L);
-        user.setEmail("admin@test.com");
-        user.setAdmin(true);
-
         UserDetailsImpl userDetails = UserDetailsImpl.builder()
                 .id(1L)
                 .username("admin@test.com")
@@ -109,9 +117,8 @@ public class AuthControllerTest {
                 .build();
         Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null);
         when(authenticationManager.authenticate(any())).thenReturn(auth);
-        when(userRepository.findByEmail("admin@test.com")).thenReturn(Optional.of(user));
 
-        mockMvc.perform(post("/api/auth/login")
+        dispatch(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
@@ -124,11 +131,6 @@ public class AuthControllerTest {
         loginRequest.setEmail("user@test.com");
         loginRequest.setPassword("password");
 
-        User user = new User();
-        user.setId(1L);
-        user.setEmail("user@test.com");
-        user.setAdmin(false);
-
         UserDetailsImpl userDetails = UserDetailsImpl.builder()
                 .id(1L)
                 .username("user@test.com")
@@ -139,9 +141,8 @@ public class AuthControllerTest {
                 .build();
         Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null);
         when(authenticationManager.authenticate(any())).thenReturn(auth);
-        when(userRepository.findByEmail("user@test.com")).thenReturn(Optional.of(user));
 
-        mockMvc.perform(post("/api/auth/login")
+        dispatch(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
@@ -149,7 +150,7 @@ public class AuthControllerTest {
     }
 
     @Test
-    void login_whenUserNotFoundInRepo_returnsAdminFalse() throws Exception {
+    void login_whenAdminFlagMissing_returnsAdminFalse() throws Exception {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setEmail("nouser@test.com");
         loginRequest.setPassword("password");
@@ -159,18 +160,16 @@ public class AuthControllerTest {
                 .username("nouser@test.com")
                 .firstName("Test")
                 .lastName("User")
-                .admin(false)
                 .password("encodedPassword")
                 .build();
         Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null);
         when(authenticationManager.authenticate(any())).thenReturn(auth);
-        when(userRepository.findByEmail("nouser@test.com")).thenReturn(Optional.empty());
 
-        mockMvc.perform(post("/api/auth/login")
+        dispatch(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.admin").value(false)); // Par défaut false si utilisateur inconnu
+                .andExpect(jsonPath("$.admin").value(false)); // Par défaut false si le principal ne porte pas le rôle
     }
 
     @Test
@@ -183,7 +182,7 @@ public class AuthControllerTest {
         loginRequest.setEmail("bad@test.com");
         loginRequest.setPassword("bad");
 
-        mockMvc.perform(post("/api/auth/login")
+        dispatch(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest)))
             .andExpect(status().isUnauthorized()); // Statut 401 attendu
@@ -198,14 +197,16 @@ public class AuthControllerTest {
         signupRequest.setLastName("User");
         signupRequest.setPassword("password");
 
-        when(userRepository.existsByEmail("new@test.com")).thenReturn(false); // Email disponible
         when(passwordEncoder.encode("password")).thenReturn("encodedPassword"); // Mot de passe encodé
 
-        mockMvc.perform(post("/api/auth/register")
+        dispatch(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(signupRequest)))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.message").value("User registered successfully!"));
+
+        verify(userRepository).saveAndFlush(any()); // Une seule insertion
+        verify(userRepository, never()).existsByEmail(anyString()); // Plus de vérification préalable
     }
 
     @Test
@@ -217,13 +218,81 @@ public class AuthControllerTest {
         signupRequest.setLastName("User");
         signupRequest.setPassword("password");
 
-        when(userRepository.existsByEmail("taken@test.com")).thenReturn(true); // Email déjà utilisé
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword"); // Mot de passe encodé
+        when(userRepository.saveAndFlush(any())).thenThrow(integrityViolation("USERS.uk_users_email")); // Contrainte d'unicité violée
 
-        mockMvc.perform(post("/api/auth/register")
+        dispatch(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(signupRequest)))
             .andExpect(status().isBadRequest())
             .andExpect(jsonPath("$.message").value("Error: Email is already taken!"));
     }
-}
 
+    @Test
+    @DisplayName("Should not report other integrity violations as a taken email")
+    void testRegister_OtherIntegrityViolation() throws Exception {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("new@test.com");
+        signupRequest.setFirstName("Test");
+        signupRequest.setLastName("User");
+        signupRequest.setPassword("password");
+
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        DataIntegrityViolationException violation = integrityViolation("PRIMARY");
+        when(userRepository.saveAndFlush(any())).thenThrow(violation); // Autre contrainte violée
+
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(signupRequest)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        assertThat(result.getAsyncResult()).isSameAs(violation); // L'erreur est propagée telle quelle
+    }
+
+    private static DataIntegrityViolationException integrityViolation(String constraintName) {
+        return new DataIntegrityViolationException("Duplicate entry",
+            new ConstraintViolationException("Duplicate entry", new SQLException(), constraintName));
+    }
+
+    @Test
+    @DisplayName("Should hash passwords off the request thread")
+    void testLogin_RunsOnHashingExecutor() throws Exception {
+        String[] threadName = new String[1];
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            threadName[0] = Thread.currentThread().getName(); // Thread qui vérifie le mot de passe
+            UserDetailsImpl userDetails = UserDetailsImpl.builder().id(1L).username("test@test.com").admin(false).build();
+            return new UsernamePasswordAuthenticationToken(userDetails, null);
+        });
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@test.com");
+        loginRequest.setPassword("password");
+
+        dispatch(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+            .andExpect(status().isOk());
+
+        assertThat(threadName[0]).startsWith("password-hashing-"); // Exécuté sur le pool dédié
+    }
+
+    @Test
+    @DisplayName("Should answer 503 immediately when the hashing pool is saturated")
+    void testLogin_SaturatedExecutor_returnsServiceUnavailable() throws Exception {
+        Executor saturated = task -> {
+            throw new TaskRejectedException("queue full"); // File d'attente pleine
+        };
+        AuthController controller = new AuthController(authenticationManager, passwordEncoder, jwtUtils, userRepository, saturated);
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@test.com");
+        loginRequest.setPassword("password");
+
+        ResponseEntity<?> response = controller.authenticateUser(loginRequest).get();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst("Retry-After")).isEqualTo("1");
+        verify(authenticationManager, never()).authenticate(any()); // Aucun hachage lancé
+    }
+}
@@ -0,0 +1,152 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.services.SessionListCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the session endpoints against a real database with the statement budget enforced,
+ * so an N+1 regression in the service, repositories or mapper fails the build.
+ */
+@SpringBootTest(properties = "oc.app.statementBudget.failOnExceed=true")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@ActiveProfiles("h2")
+class SessionControllerStatementBudgetTest {
+    private static final String METRIC_NAME = "hibernate.statements.per.request";
+
+    private static final int SESSIONS = 30;
+
+    private static final int PARTICIPANTS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SessionListCache sessionListCache;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        Teacher teacher = teacherRepository.save(Teacher.builder().firstName("Margot").lastName("Delahaye").build());
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            users.add(new User("user" + i + "@test.com", "Last", "First", "password", false));
+        }
+        users = userRepository.saveAll(users);
+
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(Session.builder()
+                .name("Session " + i)
+                .description("Description")
+                .date(new Date())
+                .teacher(teacher)
+                .users(new ArrayList<>(users))
+                .build());
+        }
+        sessionId = sessionRepository.saveAll(sessions).get(0).getId();
+
+        sessionListCache.invalidate();
+        meterRegistry.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        waitlistRepository.deleteAll();
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+
+    private DistributionSummary statements(String uri) {
+        return meterRegistry.get(METRIC_NAME).tag("uri", uri).tag("overBudget", "false").summary();
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Should list sessions with participants in a constant number of statements")
+    void findAll_staysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/session"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(SESSIONS)))
+            .andExpect(jsonPath("$[0].users", hasSize(PARTICIPANTS)));
+
+        assertThat(statements("/api/session").max()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Should load one session with its participants in a constant number of statements")
+    void findById_staysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/session/{id}", sessionId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.users", hasSize(PARTICIPANTS)));
+
+        assertThat(statements("/api/session/{id}").max()).isLessThanOrEqualTo(3);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "oc.app.statementBudget.maxPerRequest=1")
+    class OverBudget {
+
+        @Autowired
+        private MockMvc overBudgetMockMvc;
+
+        @Test
+        @WithMockUser
+        @DisplayName("Should fail a request that goes over the statement budget")
+        void findAll_overBudget_fails() {
+            assertThatThrownBy(() -> overBudgetMockMvc.perform(get("/api/session")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("GET /api/session issued")
+                .hasMessageContaining("over the budget of 1");
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.ParticipationDto;
+import com.openclassrooms.starterjwt.dto.ParticipationStatus;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.CollectionVersion;
+import com.openclassrooms.starterjwt.services.SessionCursor;
+import com.openclassrooms.starterjwt.services.SessionListCache;
 import com.openclassrooms.starterjwt.services.SessionService;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,13 +20,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.*;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,6 +57,9 @@ public class SessionControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SessionListCache sessionListCache;
+
     private Session session;
     private SessionDto sessionDto;
     private Teacher teacher;
@@ -69,6 +88,23 @@ public class SessionControllerTest {
         sessionDto.setDate(new Date());
         sessionDto.setTeacher_id(1L);
         sessionDto.setUsers(new ArrayList<>());
+
+        when(sessionService.getVersion(any(), any())).thenReturn(version(1L, LocalDateTime.of(2024, 1, 1, 10, 0)));
+        sessionListCache.invalidate();
+    }
+
+    private static CollectionVersion version(Long count, LocalDateTime lastModified) {
+        return new CollectionVersion() {
+            @Override
+            public Long getCount() {
+                return count;
+            }
+
+            @Override
+            public LocalDateTime getLastModified() {
+                return lastModified;
+            }
+        };
     }
 
     @Test
@@ -78,15 +114,199 @@ public class SessionControllerTest {
         List<Session> sessions = Arrays.asList(session);
         List<SessionDto> sessionDtos = Arrays.asList(sessionDto);
         
-        when(sessionService.findAll()).thenReturn(sessions);
-        when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
+        when(sessionService.findAll(isNull(), isNull(), any(Pageable.class), eq(false))).thenReturn(new SliceImpl<>(sessions));
+        when(sessionMapper.toDto(eq(sessions), anyMap())).thenReturn(sessionDtos);
 
         mockMvc.perform(get("/api/session"))
             .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
             .andExpect(jsonPath("$", hasSize(1)))
             .andExpect(jsonPath("$[0].name").value("Morning Yoga"));
-        
-        verify(sessionService, times(1)).findAll();
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(sessionService, times(1)).findAll(isNull(), isNull(), pageable.capture(), eq(false));
+        assertThat(pageable.getValue().getPageNumber()).isZero();
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(50);
+        assertThat(pageable.getValue().getSort()).isEqualTo(Sort.by("date", "id"));
+    }
+
+    @Test
+    @DisplayName("Should page, filter and count sessions on request")
+    @WithMockUser
+    void testFindAll_PagedWithCount() throws Exception {
+        List<Session> sessions = Arrays.asList(session);
+        when(sessionService.findAll(any(Date.class), any(Date.class), any(Pageable.class), eq(true)))
+            .thenReturn(new PageImpl<>(sessions, PageRequest.of(2, 1), 7));
+        when(sessionMapper.toDto(eq(sessions), anyMap())).thenReturn(Arrays.asList(sessionDto));
+
+        mockMvc.perform(get("/api/session")
+                .param("page", "2")
+                .param("size", "1")
+                .param("sort", "name,desc")
+                .param("from", "2024-01-01T00:00:00.000Z")
+                .param("to", "2024-02-01T00:00:00.000Z")
+                .param("count", "true"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "7"))
+            .andExpect(jsonPath("$", hasSize(1)));
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        ArgumentCaptor<Date> from = ArgumentCaptor.forClass(Date.class);
+        verify(sessionService).findAll(from.capture(), any(Date.class), pageable.capture(), eq(true));
+        assertThat(from.getValue().toInstant()).isEqualTo(Instant.parse("2024-01-01T00:00:00Z"));
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(2);
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(1);
+        assertThat(pageable.getValue().getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "name"));
+    }
+
+    @Test
+    @DisplayName("Should reject sorting on a property outside the whitelist")
+    @WithMockUser
+    void testFindAll_UnknownSortProperty() throws Exception {
+        mockMvc.perform(get("/api/session").param("sort", "bogus"))
+            .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).findAll(any(), any(), any(Pageable.class), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for an unchanged session list without loading rows")
+    @WithMockUser
+    void testFindAll_NotModified() throws Exception {
+        when(sessionService.findAll(isNull(), isNull(), any(Pageable.class), eq(false))).thenReturn(new SliceImpl<>(new ArrayList<>()));
+        String etag = mockMvc.perform(get("/api/session"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+        clearInvocations(sessionService, sessionMapper);
+
+        mockMvc.perform(get("/api/session").header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        verify(sessionService, never()).findAll(any(), any(), any(Pageable.class), anyBoolean());
+        verify(sessionMapper, never()).toDto(anyList(), anyMap());
+    }
+
+    @Test
+    @DisplayName("Should return a fresh list when the collection version changed")
+    @WithMockUser
+    void testFindAll_ModifiedAfterParticipation() throws Exception {
+        when(sessionService.findAll(isNull(), isNull(), any(Pageable.class), eq(false))).thenReturn(new SliceImpl<>(new ArrayList<>()));
+        String etag = mockMvc.perform(get("/api/session"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        when(sessionService.getVersion(any(), any())).thenReturn(version(1L, LocalDateTime.of(2024, 1, 1, 10, 5)));
+        sessionListCache.invalidate();
+
+        mockMvc.perform(get("/api/session").header("If-None-Match", etag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should serve a repeated page from the pre-rendered cache")
+    @WithMockUser
+    void testFindAll_ServedFromSnapshotCache() throws Exception {
+        List<Session> sessions = Arrays.asList(session);
+        when(sessionService.findAll(isNull(), isNull(), any(Pageable.class), eq(true)))
+            .thenReturn(new PageImpl<>(sessions, PageRequest.of(0, 50), 1));
+        when(sessionMapper.toDto(eq(sessions), anyMap())).thenReturn(Arrays.asList(sessionDto));
+        long hits = sessionListCache.getHits();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/session").param("count", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$[0].name").value("Morning Yoga"));
+        }
+
+        verify(sessionService, times(1)).getVersion(isNull(), isNull());
+        verify(sessionService, times(1)).findAll(isNull(), isNull(), any(Pageable.class), eq(true));
+        verify(sessionMapper, times(1)).toDto(eq(sessions), anyMap());
+        assertThat(sessionListCache.getHits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    @DisplayName("Should cap the requested page size")
+    @WithMockUser
+    void testFindAll_PageSizeIsBounded() throws Exception {
+        when(sessionService.findAll(isNull(), isNull(), any(Pageable.class), eq(false))).thenReturn(new SliceImpl<>(new ArrayList<>()));
+        when(sessionMapper.toDto(Mockito.anyList(), anyMap())).thenReturn(new ArrayList<>());
+
+        mockMvc.perform(get("/api/session").param("size", "100000"))
+            .andExpect(status().isOk());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(sessionService).findAll(isNull(), isNull(), pageable.capture(), eq(false));
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should return a cursor page with a continuation token")
+    @WithMockUser
+    void testFindAllAfter_HasNext() throws Exception {
+        Session second = Session.builder().id(2L).name("Evening Yoga").date(new Date(1700000000000L)).build();
+        Session third = Session.builder().id(3L).name("Night Yoga").date(new Date(1700000001000L)).build();
+        SessionCursor cursor = new SessionCursor(new Date(1690000000000L), 1L);
+        when(sessionService.findAfter(cursor, 3)).thenReturn(Arrays.asList(session, second, third));
+        when(sessionMapper.toDto(eq(Arrays.asList(session, second)), anyMap())).thenReturn(Arrays.asList(sessionDto, sessionDto));
+
+        mockMvc.perform(get("/api/session/cursor").param("after", cursor.encode()).param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions", hasSize(2)))
+            .andExpect(jsonPath("$.next").value(SessionCursor.of(second).encode()));
+    }
+
+    @Test
+    @DisplayName("Should return the last cursor page without continuation token")
+    @WithMockUser
+    void testFindAllAfter_LastPage() throws Exception {
+        when(sessionService.findAfter(null, 51)).thenReturn(Arrays.asList(session));
+        when(sessionMapper.toDto(eq(Arrays.asList(session)), anyMap())).thenReturn(Arrays.asList(sessionDto));
+
+        mockMvc.perform(get("/api/session/cursor"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions", hasSize(1)))
+            .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for an unchanged cursor page")
+    @WithMockUser
+    void testFindAllAfter_NotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/session/cursor"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/session/cursor").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        verify(sessionService, times(1)).findAfter(null, 51);
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an invalid cursor")
+    @WithMockUser
+    void testFindAllAfter_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/session/cursor").param("after", "not a cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 when the session has not been updated")
+    @WithMockUser
+    void testFindById_NotModified() throws Exception {
+        session.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(sessionService.getById(1L)).thenReturn(session);
+
+        String etag = mockMvc.perform(get("/api/session/1"))
+            .andReturn().getResponse().getHeader("ETag");
+        clearInvocations(sessionMapper, sessionService);
+
+        mockMvc.perform(get("/api/session/1").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        verify(sessionService, never()).findParticipantIds(anyList());
+        verify(sessionMapper, never()).toDto(any(Session.class), anyList());
     }
 
     @Test
@@ -94,7 +314,8 @@ public class SessionControllerTest {
     @WithMockUser
     void testFindById_Success() throws Exception {
         when(sessionService.getById(1L)).thenReturn(session);
-        when(sessionMapper.toDto(Mockito.any(Session.class))).thenReturn(sessionDto);
+        when(sessionService.findParticipantIds(Collections.singletonList(session))).thenReturn(Collections.singletonMap(1L, Arrays.asList(2L, 3L)));
+        when(sessionMapper.toDto(session, Arrays.asList(2L, 3L))).thenReturn(sessionDto);
 
         mockMvc.perform(get("/api/session/1"))
             .andExpect(status().isOk())
@@ -136,6 +357,21 @@ public class SessionControllerTest {
             .andExpect(jsonPath("$.name").value("Morning Yoga"));
     }
 
+    @Test
+    @DisplayName("Should tell the client which user ids are unknown")
+    @WithMockUser
+    void testCreate_UnknownUserIds() throws Exception {
+        when(sessionMapper.toEntity(Mockito.any(SessionDto.class))).thenThrow(new BadRequestException("Unknown user ids: [42]"));
+
+        mockMvc.perform(post("/api/session")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sessionDto)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unknown user ids: [42]"));
+
+        verify(sessionService, never()).create(any(Session.class));
+    }
+
     @Test
     @DisplayName("Should update session successfully")
     @WithMockUser(username = "admin@test.com", roles = {"ADMIN"})
@@ -219,7 +455,7 @@ public class SessionControllerTest {
     @DisplayName("Should participate in session successfully")
     @WithMockUser
     void testParticipate_Success() throws Exception {
-        doNothing().when(sessionService).participate(1L, 2L);
+        when(sessionService.participate(1L, 2L)).thenReturn(new ParticipationDto(1L, 2L, ParticipationStatus.BOOKED, null));
 
         mockMvc.perform(post("/api/session/1/participate/2"))
             .andExpect(status().isOk());
@@ -227,6 +463,92 @@ public class SessionControllerTest {
         verify(sessionService, times(1)).participate(1L, 2L);
     }
 
+    @Test
+    @DisplayName("Should return 202 with the waitlist position when the session is full")
+    @WithMockUser
+    void testParticipate_Waitlisted() throws Exception {
+        when(sessionService.participate(1L, 2L)).thenReturn(new ParticipationDto(1L, 2L, ParticipationStatus.WAITLISTED, 3L));
+
+        mockMvc.perform(post("/api/session/1/participate/2"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.status").value("WAITLISTED"))
+            .andExpect(jsonPath("$.waitlistPosition").value(3));
+    }
+
+    @Test
+    @DisplayName("Should return the waitlist position of a user")
+    @WithMockUser
+    void testGetWaitlistPosition_Success() throws Exception {
+        when(sessionService.getWaitlistPosition(1L, 2L)).thenReturn(new ParticipationDto(1L, 2L, ParticipationStatus.WAITLISTED, 1L));
+
+        mockMvc.perform(get("/api/session/1/waitlist/2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.waitlistPosition").value(1));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when the user is not on the waitlist")
+    @WithMockUser
+    void testGetWaitlistPosition_NotFound() throws Exception {
+        when(sessionService.getWaitlistPosition(1L, 2L)).thenThrow(new NotFoundException());
+
+        mockMvc.perform(get("/api/session/1/waitlist/2"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should leave the waitlist")
+    @WithMockUser
+    void testLeaveWaitlist_Success() throws Exception {
+        mockMvc.perform(delete("/api/session/1/waitlist/2"))
+            .andExpect(status().isOk());
+
+        verify(sessionService).leaveWaitlist(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should return 400 for invalid waitlist ids")
+    @WithMockUser
+    void testLeaveWaitlist_BadRequest() throws Exception {
+        mockMvc.perform(delete("/api/session/x/waitlist/y"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/session/x/waitlist/y"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return per-item results for a batch participation")
+    @WithMockUser
+    void testParticipateAll_Success() throws Exception {
+        when(sessionService.participateAll(anyList())).thenReturn(Arrays.asList(
+            new ParticipationDto(1L, 2L, ParticipationStatus.BOOKED, null),
+            new ParticipationDto(1L, 3L, ParticipationStatus.NOT_FOUND, null)));
+
+        mockMvc.perform(post("/api/session/participate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"participations\":[{\"sessionId\":1,\"userId\":2},{\"sessionId\":1,\"userId\":3}]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].status").value("BOOKED"))
+            .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an empty or incomplete batch participation")
+    @WithMockUser
+    void testParticipateAll_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/session/participate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"participations\":[]}"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/session/participate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"participations\":[{\"sessionId\":1}]}"))
+            .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).participateAll(anyList());
+    }
+
     @Test
     @DisplayName("Should return 400 for invalid participation ids")
     @WithMockUser
@@ -251,8 +573,8 @@ public class SessionControllerTest {
     @DisplayName("Should return empty list when no sessions")
     @WithMockUser
     void testFindAll_EmptyList() throws Exception {
-        when(sessionService.findAll()).thenReturn(new ArrayList<>());
-        when(sessionMapper.toDto(Mockito.anyList())).thenReturn(new ArrayList<>());
+        when(sessionService.findAll(isNull(), isNull(), any(Pageable.class), eq(false))).thenReturn(new SliceImpl<>(new ArrayList<>()));
+        when(sessionMapper.toDto(Mockito.anyList(), anyMap())).thenReturn(new ArrayList<>());
 
         mockMvc.perform(get("/api/session"))
             .andExpect(status().isOk())
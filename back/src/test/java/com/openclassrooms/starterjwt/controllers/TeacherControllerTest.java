@@ -13,10 +13,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -64,6 +67,38 @@ public class TeacherControllerTest {
                 .andExpect(content().json("[]"));
     }
 
+    @Test
+    @DisplayName("Should answer 304 when the teacher list has not changed")
+    @WithMockUser
+    void findAll_shouldReturnNotModified() throws Exception {
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        teacher.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(teacherService.findAll()).thenReturn(List.of(teacher));
+
+        String etag = mockMvc.perform(get("/api/teacher"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/teacher").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 when the teacher has not changed")
+    @WithMockUser
+    void findById_shouldReturnNotModified() throws Exception {
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        teacher.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(teacherService.findById(1L)).thenReturn(teacher);
+
+        mockMvc.perform(get("/api/teacher/1").header("If-None-Match", "\"1-" + EntityTags.lastModified(teacher.getUpdatedAt()) + "\""))
+                .andExpect(status().isNotModified());
+
+        verify(teacherMapper, never()).toDto(teacher);
+    }
+
     @Test
     @DisplayName("Should find teacher by id")
     @WithMockUser
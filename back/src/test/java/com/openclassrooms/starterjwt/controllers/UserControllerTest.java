@@ -54,6 +54,20 @@ public class UserControllerTest {
             .andExpect(jsonPath("$.email").value("john@test.com"));
     }
 
+    @Test
+    @DisplayName("Should answer 304 when the user has not changed")
+    @WithMockUser
+    void testFindById_NotModified() throws Exception {
+        when(userService.findById(anyLong())).thenReturn(user);
+
+        String etag = mockMvc.perform(get("/api/user/1"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/user/1").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+    }
+
     @Test
     @DisplayName("Should return 404 when user not found")
     @WithMockUser
@@ -15,4 +15,11 @@ class BadRequestExceptionTest {
         ResponseStatus annotation = BadRequestException.class.getAnnotation(ResponseStatus.class);
         assertThat(annotation.value()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
+
+    @Test
+    @DisplayName("Should keep the message describing the bad input")
+    void shouldKeepMessage() {
+        assertThat(new BadRequestException("Unknown user ids: [3]")).hasMessage("Unknown user ids: [3]");
+        assertThat(new BadRequestException().getMessage()).isNull();
+    }
 }
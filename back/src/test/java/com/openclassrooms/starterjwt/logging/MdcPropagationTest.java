@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MdcPropagationTest {
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    @DisplayName("Should run the task with the submitting thread's MDC and clear it afterwards")
+    void propagate_copiesContext() throws InterruptedException {
+        AtomicReference<String> seen = new AtomicReference<>();
+        AtomicReference<String> after = new AtomicReference<>();
+        MDC.put(RequestLogFilter.REQUEST_ID, "abc");
+        Runnable task = MdcPropagation.propagate(() -> seen.set(MDC.get(RequestLogFilter.REQUEST_ID)));
+
+        Thread worker = new Thread(() -> {
+            task.run();
+            after.set(MDC.get(RequestLogFilter.REQUEST_ID));
+        });
+        worker.start();
+        worker.join();
+
+        assertThat(seen.get()).isEqualTo("abc");
+        assertThat(after.get()).isNull();
+    }
+}
@@ -0,0 +1,90 @@
+package com.openclassrooms.starterjwt.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.DispatcherType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestLogFilterTest {
+
+    @Test
+    @DisplayName("Should always log server errors and slow requests")
+    void shouldLog_errorsAndSlowRequests() {
+        RequestLogFilter filter = new RequestLogFilter(0, 500);
+
+        assertThat(filter.shouldLog(500, 1)).isTrue();
+        assertThat(filter.shouldLog(200, 500)).isTrue();
+        assertThat(filter.shouldLog(200, 1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should log every request with a full sample rate")
+    void shouldLog_fullSampleRate() {
+        RequestLogFilter filter = new RequestLogFilter(1, 500);
+
+        assertThat(filter.shouldLog(200, 1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should expose a request id to log lines only while the request runs")
+    void doFilter_setsRequestId() throws Exception {
+        RequestLogFilter filter = new RequestLogFilter(0, 500);
+        AtomicReference<String> requestId = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/session"), new MockHttpServletResponse(),
+                (req, res) -> requestId.set(MDC.get(RequestLogFilter.REQUEST_ID)));
+
+        assertThat(requestId.get()).isNotBlank();
+        assertThat(MDC.get(RequestLogFilter.REQUEST_ID)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep the request id across async dispatches and log only once the last one completes")
+    void doFilter_asyncRequest() throws Exception {
+        RequestLogFilter filter = new RequestLogFilter(1, 500);
+        Logger logger = (Logger) LoggerFactory.getLogger(RequestLogFilter.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<String> requestIds = new ArrayList<>();
+
+        try {
+            filter.doFilter(request, response, (req, res) -> {
+                requestIds.add(MDC.get(RequestLogFilter.REQUEST_ID));
+                StandardServletAsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(request, response);
+                WebAsyncUtils.getAsyncManager(req).setAsyncWebRequest(asyncWebRequest);
+                asyncWebRequest.startAsync();
+            });
+            assertThat(appender.list).isEmpty();
+
+            request.setAsyncStarted(false);
+            request.setDispatcherType(DispatcherType.ASYNC);
+            filter.doFilter(request, response, (req, res) -> requestIds.add(MDC.get(RequestLogFilter.REQUEST_ID)));
+        } finally {
+            logger.detachAppender(appender);
+        }
+
+        assertThat(requestIds).hasSize(2);
+        assertThat(requestIds.get(1)).isNotBlank().isEqualTo(requestIds.get(0));
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getMDCPropertyMap()).containsEntry(RequestLogFilter.REQUEST_ID, requestIds.get(0));
+    }
+}
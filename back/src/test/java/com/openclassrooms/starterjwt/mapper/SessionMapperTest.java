@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
@@ -16,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -46,11 +48,12 @@ class SessionMapperTest {
         User user = new User("user@test.com", "Doe", "John", "password", false);
         user.setId(2L);
         when(teacherService.findById(1L)).thenReturn(teacher);
-        when(userService.findById(2L)).thenReturn(user);
+        when(userService.findAllById(Arrays.asList(2L))).thenReturn(Arrays.asList(user));
 
         Session session = sessionMapper.toEntity(dto);
         assertThat(session.getTeacher()).isEqualTo(teacher);
         assertThat(session.getUsers()).containsExactly(user);
+        verify(userService, never()).findById(anyLong());
     }
 
     @Test
@@ -75,7 +78,7 @@ class SessionMapperTest {
 
         User user = new User("user@test.com", "Doe", "John", "password", false);
         user.setId(1L);
-        when(userService.findById(1L)).thenReturn(user);
+        when(userService.findAllById(Arrays.asList(1L))).thenReturn(Arrays.asList(user));
 
         Session session = sessionMapper.toEntity(dto);
         assertThat(session.getTeacher()).isNull();
@@ -173,12 +176,13 @@ class SessionMapperTest {
     }
 
     @Test
-    void toEntity_invalidUserId_resultsInListWithNull() {
+    void toEntity_invalidUserId_throwsBadRequest() {
         SessionDto dto = new SessionDto();
         dto.setUsers(Arrays.asList(999L));
-        when(userService.findById(999L)).thenReturn(null);
-        Session result = sessionMapper.toEntity(dto);
-        assertThat(result.getUsers()).containsExactly((User) null);
+        when(userService.findAllById(Arrays.asList(999L))).thenThrow(new BadRequestException("Unknown user ids: [999]"));
+        assertThatThrownBy(() -> sessionMapper.toEntity(dto))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("999");
     }
 
     @Test
@@ -216,16 +220,44 @@ class SessionMapperTest {
     }
 
     @Test
-    void toEntity_mixedValidAndInvalidUsers_includesNullForMissingOnes() {
+    void toEntity_manyUsers_resolvedWithOneBatchedLookup() {
         SessionDto dto = new SessionDto();
         dto.setUsers(Arrays.asList(1L, 2L));
 
-        User user = new User("user@test.com", "Doe", "John", "password", false);
-        user.setId(1L);
-        when(userService.findById(1L)).thenReturn(user);
-        when(userService.findById(2L)).thenReturn(null);
+        User first = new User("first@test.com", "Doe", "John", "password", false);
+        first.setId(1L);
+        User second = new User("second@test.com", "Doe", "Jane", "password", false);
+        second.setId(2L);
+        when(userService.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(first, second));
 
         Session result = sessionMapper.toEntity(dto);
-        assertThat(result.getUsers()).containsExactly(user, null);
+        assertThat(result.getUsers()).containsExactly(first, second);
+        verify(userService, times(1)).findAllById(anyCollection());
+    }
+
+    @Test
+    @DisplayName("toDto should take participant ids from the projection instead of the users collection")
+    void toDto_withParticipantIds_ignoresUsersCollection() {
+        Teacher teacher = Teacher.builder().id(1L).firstName("T").lastName("L").build();
+        Session session = Session.builder().id(1L).name("Session").teacher(teacher).users(null).build();
+
+        SessionDto dto = sessionMapper.toDto(session, Arrays.asList(5L, 6L));
+        assertThat(dto.getTeacher_id()).isEqualTo(1L);
+        assertThat(dto.getUsers()).containsExactly(5L, 6L);
+
+        assertThat(sessionMapper.toDto(session, (List<Long>) null).getUsers()).isEmpty();
+        assertNull(sessionMapper.toDto((Session) null, Arrays.asList(5L)));
+    }
+
+    @Test
+    @DisplayName("toDto should map a page of sessions with grouped participant ids")
+    void toDto_listWithParticipantIds() {
+        Session first = Session.builder().id(1L).name("A").build();
+        Session second = Session.builder().id(2L).name("B").build();
+
+        List<SessionDto> dtos = sessionMapper.toDto(List.of(first, second), Map.of(1L, List.of(7L)));
+        assertThat(dtos).hasSize(2);
+        assertThat(dtos.get(0).getUsers()).containsExactly(7L);
+        assertThat(dtos.get(1).getUsers()).isEmpty();
     }
 }
@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
+import com.openclassrooms.starterjwt.services.SessionListCache;
+import com.openclassrooms.starterjwt.services.TeacherCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheMetricsTest {
+
+    @Test
+    @DisplayName("Should publish cache hits and misses")
+    void bindTo_registersMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TeacherCache teacherCache = new TeacherCache(60000, 10);
+
+        new CacheMetrics(teacherCache, new SessionListCache(60000, 10), new JwtTokenCache(10))
+                .bindTo(registry);
+        teacherCache.get(1L);
+
+        assertThat(registry.get("cache.gets").tag("cache", "teachers").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "sessionLists").tag("result", "hit").functionCounter().count())
+                .isZero();
+        assertThat(registry.get("cache.gets").tag("cache", "jwtTokens").functionCounters()).hasSize(2);
+    }
+}
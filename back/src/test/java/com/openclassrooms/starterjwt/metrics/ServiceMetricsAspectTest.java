@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.services.TeacherCache;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ServiceMetricsAspectTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final TeacherRepository teacherRepository = mock(TeacherRepository.class);
+
+    private TeacherService proxy() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TeacherService(teacherRepository, new TeacherCache(60000, 10)));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(registry));
+        return factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Should time service calls by class and method")
+    void serviceCall_isTimed() {
+        when(teacherRepository.findById(1L)).thenReturn(Optional.empty());
+
+        proxy().findById(1L);
+
+        assertThat(registry.get(ServiceMetricsAspect.METRIC_NAME)
+                .tag("class", "TeacherService")
+                .tag("method", "findById")
+                .tag("exception", "none")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should tag failed service calls with the exception")
+    void failingServiceCall_isTaggedWithException() {
+        when(teacherRepository.findAll()).thenThrow(new IllegalStateException());
+
+        TeacherService teacherService = proxy();
+        assertThatThrownBy(teacherService::findAll).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.get(ServiceMetricsAspect.METRIC_NAME)
+                .tag("method", "findAll")
+                .tag("exception", "IllegalStateException")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+
+import static org.assertj.core.api.Assertions.*;
+
+class StatementCountFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static FilterChain issuing(int statements) {
+        return (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/session/{id}");
+            StatementCounter counter = new StatementCounter();
+            for (int i = 0; i < statements; i++) {
+                counter.inspect("select " + i);
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should record the statements issued while handling the request")
+    void doFilter_recordsStatementCount() throws Exception {
+        StatementCountFilter filter = new StatementCountFilter(registry, 5, false);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/session/1"), new MockHttpServletResponse(), issuing(2));
+
+        DistributionSummary summary = registry.get(StatementCountFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/api/session/{id}")
+                .tag("overBudget", "false")
+                .summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should stop counting once the request is done")
+    void doFilter_clearsCounter() throws Exception {
+        StatementCountFilter filter = new StatementCountFilter(registry, 5, false);
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> { });
+
+        new StatementCounter().inspect("select 1");
+
+        assertThat(StatementCounter.current()).isZero();
+        assertThat(registry.get(StatementCountFilter.METRIC_NAME).tag("uri", "UNKNOWN").summary().totalAmount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should tag requests over the statement budget")
+    void doFilter_overBudget_isTagged() throws Exception {
+        StatementCountFilter filter = new StatementCountFilter(registry, 1, false);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/session/1"), new MockHttpServletResponse(), issuing(3));
+
+        assertThat(registry.get(StatementCountFilter.METRIC_NAME).tag("overBudget", "true").summary().totalAmount())
+                .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should fail requests over the statement budget when asked to")
+    void doFilter_overBudget_failsWhenEnabled() {
+        StatementCountFilter filter = new StatementCountFilter(registry, 1, true);
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/api/session/1"), new MockHttpServletResponse(), issuing(3)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("GET /api/session/{id} issued 3 SQL statements");
+        assertThat(StatementCounter.current()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count statements run by tasks handed to another thread")
+    void doFilter_countsPropagatedTasks() throws Exception {
+        StatementCountFilter filter = new StatementCountFilter(registry, 5, false);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/login"), new MockHttpServletResponse(), (req, res) -> {
+            Thread worker = new Thread(StatementCounter.propagate(() -> new StatementCounter().inspect("select 1")));
+            worker.start();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThat(registry.get(StatementCountFilter.METRIC_NAME).tag("method", "POST").summary().totalAmount()).isEqualTo(1);
+    }
+}
@@ -103,10 +103,10 @@ class SessionTest {
     }
 
     @Test
-    @DisplayName("toString should contain field values")
-    void toString_shouldContainFields() {
-        Session session = Session.builder().id(1L).name("Yoga").build();
-        assertThat(session.toString()).contains("Yoga");
+    @DisplayName("toString should only contain the id")
+    void toString_shouldOnlyContainId() {
+        Session session = Session.builder().id(1L).name("Yoga").users(new ArrayList<>()).build();
+        assertThat(session.toString()).isEqualTo("Session(id=1)");
     }
 
     @Test
@@ -123,8 +123,9 @@ class SessionTest {
     @Test
     void testAllArgsConstructor() {
         Date date = new Date();
-        Session session = new Session(1L, "name", date, "desc", null, new ArrayList<>(), null, null);
+        Session session = new Session(1L, "name", date, "desc", 10, null, new ArrayList<>(), null, null);
         assertEquals("name", session.getName());
+        assertEquals(10, session.getCapacity());
     }
 
     @Test
@@ -71,10 +71,10 @@ class TeacherTest {
     }
 
     @Test
-    @DisplayName("toString should contain names")
-    void toString_shouldContainNames() {
+    @DisplayName("toString should only contain the id")
+    void toString_shouldOnlyContainId() {
         Teacher teacher = Teacher.builder().id(1L).firstName("John").lastName("Doe").build();
-        assertThat(teacher.toString()).contains("John");
+        assertThat(teacher.toString()).isEqualTo("Teacher(id=1)");
     }
 
     @Test
@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParticipationRequestTest {
+
+    @Test
+    void allArgsConstructor_gettersSetters_roundTrip() {
+        ParticipationRequest r = new ParticipationRequest(1L, 2L);
+        assertEquals(1L, r.getSessionId());
+        assertEquals(2L, r.getUserId());
+
+        r.setSessionId(3L);
+        r.setUserId(4L);
+        assertEquals(3L, r.getSessionId());
+        assertEquals(4L, r.getUserId());
+    }
+
+    @Test
+    void equalsHashCode_and_toString() {
+        ParticipationRequest a = new ParticipationRequest(1L, 2L);
+        ParticipationRequest b = new ParticipationRequest(1L, 2L);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, new ParticipationRequest(1L, 3L));
+        assertTrue(a.toString().contains("sessionId=1"));
+    }
+
+    @Test
+    void batchRequest_holdsParticipations() {
+        BatchParticipationRequest batch = new BatchParticipationRequest();
+        batch.setParticipations(Collections.singletonList(new ParticipationRequest(1L, 2L)));
+
+        assertEquals(1, batch.getParticipations().size());
+        assertEquals(new ParticipationRequest(1L, 2L), batch.getParticipations().get(0));
+    }
+}
@@ -0,0 +1,63 @@
+package com.openclassrooms.starterjwt.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class TimedPasswordEncoderTest {
+
+    @Test
+    @DisplayName("Should delegate and record encode and match timings")
+    void delegatesAndRecordsTimings() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode("pwd")).thenReturn("hash");
+        when(delegate.matches("pwd", "hash")).thenReturn(true);
+        when(delegate.upgradeEncoding("hash")).thenReturn(true);
+        TimedPasswordEncoder encoder = new TimedPasswordEncoder(delegate);
+
+        assertThat(encoder.encode("pwd")).isEqualTo("hash");
+        assertThat(encoder.matches("pwd", "hash")).isTrue();
+        assertThat(encoder.matches("pwd", "hash")).isTrue();
+        assertThat(encoder.upgradeEncoding("hash")).isTrue();
+
+        assertThat(encoder.getEncodeCount()).isEqualTo(1);
+        assertThat(encoder.getMatchesCount()).isEqualTo(2);
+        assertThat(encoder.getEncodeNanos()).isGreaterThanOrEqualTo(0);
+        assertThat(encoder.getMatchesNanos()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Should record the timing even when the delegate fails")
+    void recordsTimingOnFailure() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.matches(any(), any())).thenThrow(new IllegalArgumentException("bad hash"));
+        TimedPasswordEncoder encoder = new TimedPasswordEncoder(delegate);
+
+        try {
+            encoder.matches("pwd", "nope");
+        } catch (IllegalArgumentException expected) {
+            // the failure itself is the delegate's business
+        }
+
+        assertThat(encoder.getMatchesCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should publish encode and match timings")
+    void registerMeters_publishesTimings() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TimedPasswordEncoder encoder = new TimedPasswordEncoder(mock(PasswordEncoder.class));
+
+        encoder.registerMeters(registry);
+        encoder.encode("pwd");
+
+        assertThat(registry.get("password.encoder").tag("operation", "encode").functionTimer().count()).isEqualTo(1);
+        assertThat(registry.get("password.encoder").tag("operation", "matches").functionTimer().totalTime(TimeUnit.NANOSECONDS)).isZero();
+    }
+}
@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSecurityConfigTest {
+
+    @Test
+    @DisplayName("Should encode with the configured algorithm id")
+    void delegatingPasswordEncoder_prefixesNewHashes() {
+        PasswordEncoder encoder = WebSecurityConfig.delegatingPasswordEncoder("bcrypt", 4);
+
+        String hash = encoder.encode("secret");
+
+        assertThat(hash).startsWith("{bcrypt}$2a$04$");
+        assertThat(encoder.matches("secret", hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should accept legacy unprefixed bcrypt hashes and flag them for rehash")
+    void delegatingPasswordEncoder_acceptsLegacyHashes() {
+        PasswordEncoder encoder = WebSecurityConfig.delegatingPasswordEncoder("bcrypt", 4);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should flag hashes below the configured cost or of another algorithm for rehash")
+    void delegatingPasswordEncoder_flagsOutdatedHashes() {
+        String weak = WebSecurityConfig.delegatingPasswordEncoder("bcrypt", 4).encode("secret");
+        String pbkdf2 = WebSecurityConfig.delegatingPasswordEncoder("pbkdf2", 4).encode("secret");
+        PasswordEncoder encoder = WebSecurityConfig.delegatingPasswordEncoder("bcrypt", 5);
+
+        assertThat(encoder.matches("secret", weak)).isTrue();
+        assertThat(encoder.upgradeEncoding(weak)).isTrue();
+        assertThat(encoder.matches("secret", pbkdf2)).isTrue();
+        assertThat(encoder.upgradeEncoding(pbkdf2)).isTrue();
+    }
+}
@@ -1,6 +1,9 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +19,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import java.io.IOException;
+import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -33,11 +37,18 @@ class AuthTokenFilterTest {
     @MockBean
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private JwtRevocationList jwtRevocationList;
+
     @AfterEach
     void tearDown() {
         SecurityContextHolder.clearContext();
     }
 
+    private static Claims claims(String subject, Date expiration) {
+        return Jwts.claims().setSubject(subject).setExpiration(expiration);
+    }
+
     @Test
     void doFilterInternal_validToken_setsAuthentication() throws ServletException, IOException {
         MockHttpServletRequest request = new MockHttpServletRequest();
@@ -45,8 +56,7 @@ class AuthTokenFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(jwtUtils.validateJwtToken("valid.token")).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken("valid.token")).thenReturn("test@test.com");
+        when(jwtUtils.parseJwtToken("valid.token")).thenReturn(JwtParseResult.valid(claims("test@test.com", null)));
         UserDetails userDetails = User.withUsername("test@test.com").password("pwd").authorities("USER").build();
         when(userDetailsService.loadUserByUsername("test@test.com")).thenReturn(userDetails);
 
@@ -56,6 +66,58 @@ class AuthTokenFilterTest {
         verify(chain).doFilter(request, response);
     }
 
+    @Test
+    void doFilterInternal_repeatedToken_usesCachedPrincipal() throws ServletException, IOException {
+        when(jwtUtils.parseJwtToken("cached.token"))
+            .thenReturn(JwtParseResult.valid(claims("cached@test.com", new Date(System.currentTimeMillis() + 60000))));
+        UserDetails userDetails = User.withUsername("cached@test.com").password("pwd").authorities("USER").build();
+        when(userDetailsService.loadUserByUsername("cached@test.com")).thenReturn(userDetails);
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer cached.token");
+            filter.doFilterInternal(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+            assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+            SecurityContextHolder.clearContext();
+        }
+
+        verify(jwtUtils, times(1)).parseJwtToken("cached.token");
+        verify(userDetailsService, times(1)).loadUserByUsername("cached@test.com");
+    }
+
+    @Test
+    void doFilterInternal_statelessPrincipal_skipsUserLookup() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer stateless.token");
+        Claims claims = claims("stateless@test.com", null);
+        UserDetailsImpl userDetails = UserDetailsImpl.builder().id(42L).username("stateless@test.com").build();
+
+        when(jwtUtils.parseJwtToken("stateless.token")).thenReturn(JwtParseResult.valid(claims));
+        when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(userDetails);
+
+        filter.doFilterInternal(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void doFilterInternal_revokedUser_doesNotSetAuth() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer revoked.token");
+        Claims claims = claims("revoked@test.com", null);
+        UserDetailsImpl userDetails = UserDetailsImpl.builder().id(43L).username("revoked@test.com").build();
+
+        when(jwtUtils.parseJwtToken("revoked.token")).thenReturn(JwtParseResult.valid(claims));
+        when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(userDetails);
+        jwtRevocationList.revoke(43L);
+
+        filter.doFilterInternal(request, new MockHttpServletResponse(), mock(FilterChain.class));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
     @Test
     void doFilterInternal_invalidToken_doesNotSetAuth() throws ServletException, IOException {
         MockHttpServletRequest request = new MockHttpServletRequest();
@@ -63,7 +125,7 @@ class AuthTokenFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(jwtUtils.validateJwtToken("invalid")).thenReturn(false);
+        when(jwtUtils.parseJwtToken("invalid")).thenReturn(JwtParseResult.invalid(JwtParseResult.Failure.MALFORMED));
 
         filter.doFilterInternal(request, response, chain);
 
@@ -90,7 +152,7 @@ class AuthTokenFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         FilterChain chain = mock(FilterChain.class);
 
-        when(jwtUtils.validateJwtToken("token")).thenThrow(new RuntimeException("Error"));
+        when(jwtUtils.parseJwtToken("token")).thenThrow(new RuntimeException("Error"));
 
         filter.doFilterInternal(request, response, chain);
 
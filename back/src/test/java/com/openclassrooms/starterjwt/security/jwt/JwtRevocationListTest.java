@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtRevocationListTest {
+
+    private JwtRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new JwtRevocationList();
+        ReflectionTestUtils.setField(revocationList, "jwtExpirationMs", 60000);
+    }
+
+    @Test
+    @DisplayName("Should flag revoked users only")
+    void isRevoked_afterRevoke() {
+        revocationList.revoke(1L);
+
+        assertThat(revocationList.isRevoked(UserDetailsImpl.builder().id(1L).build())).isTrue();
+        assertThat(revocationList.isRevoked(UserDetailsImpl.builder().id(2L).build())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should forget revocations once every older token has expired")
+    void isRevoked_afterTokenLifetime() {
+        ReflectionTestUtils.setField(revocationList, "jwtExpirationMs", 0);
+        revocationList.revoke(1L);
+
+        assertThat(revocationList.isRevoked(UserDetailsImpl.builder().id(1L).build())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should ignore principals that are not UserDetailsImpl")
+    void isRevoked_otherPrincipal() {
+        assertThat(revocationList.isRevoked(User.withUsername("a").password("p").authorities("USER").build())).isFalse();
+    }
+}
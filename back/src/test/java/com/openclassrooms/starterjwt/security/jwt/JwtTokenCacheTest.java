@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenCacheTest {
+
+    private final JwtTokenCache jwtTokenCache = new JwtTokenCache(100);
+
+    private UserDetailsImpl user(Long id) {
+        return UserDetailsImpl.builder().id(id).username("user" + id + "@test.com").build();
+    }
+
+    @Test
+    @DisplayName("Should return principal cached for a token")
+    void get_cachedToken_returnsPrincipal() {
+        UserDetailsImpl userDetails = user(1L);
+        jwtTokenCache.put("token", userDetails, new Date(System.currentTimeMillis() + 60000));
+
+        assertThat(jwtTokenCache.get("token")).isSameAs(userDetails);
+        assertThat(jwtTokenCache.get("other")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens without expiration")
+    void put_withoutExpiration_isIgnored() {
+        jwtTokenCache.put("token", user(1L), null);
+
+        assertThat(jwtTokenCache.get("token")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should evict every token of a deleted user")
+    void evictUser_removesOnlyThatUser() {
+        Date expiration = new Date(System.currentTimeMillis() + 60000);
+        jwtTokenCache.put("token1", user(1L), expiration);
+        jwtTokenCache.put("token2", user(1L), expiration);
+        jwtTokenCache.put("token3", user(2L), expiration);
+
+        jwtTokenCache.evictUser(1L);
+
+        assertThat(jwtTokenCache.get("token1")).isNull();
+        assertThat(jwtTokenCache.get("token2")).isNull();
+        assertThat(jwtTokenCache.get("token3")).isNotNull();
+    }
+}
@@ -37,6 +37,8 @@ class JwtUtilsTest {
 
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "statelessPrincipal", false);
+        jwtUtils.init();
     }
 
     @Test
@@ -57,6 +59,60 @@ class JwtUtilsTest {
         assertThat(username).isEqualTo("test@test.com");
     }
 
+    @Test
+    @DisplayName("Should parse token once and expose its claims")
+    void testParseJwtToken_Valid() {
+        long before = System.currentTimeMillis();
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        JwtParseResult result = jwtUtils.parseJwtToken(token);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getFailure()).isNull();
+        assertThat(result.getClaims().getSubject()).isEqualTo("test@test.com");
+        assertThat(result.getClaims().getExpiration().getTime()).isGreaterThan(before + 86400000 - 1000);
+    }
+
+    @Test
+    @DisplayName("Should report why a token is rejected")
+    void testParseJwtToken_Failures() {
+        assertThat(jwtUtils.parseJwtToken("malformed").getFailure()).isEqualTo(JwtParseResult.Failure.MALFORMED);
+        assertThat(jwtUtils.parseJwtToken("").getFailure()).isEqualTo(JwtParseResult.Failure.EMPTY);
+        assertThat(jwtUtils.parseJwtToken(Jwts.builder().setSubject("test").compact()).getFailure())
+            .isEqualTo(JwtParseResult.Failure.UNSUPPORTED);
+
+        String token = jwtUtils.generateJwtToken(authentication);
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "otherSecret");
+        jwtUtils.init();
+        assertThat(jwtUtils.parseJwtToken(token).getFailure()).isEqualTo(JwtParseResult.Failure.INVALID_SIGNATURE);
+        assertThat(jwtUtils.parseJwtToken(token).getClaims()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the principal from claims in stateless mode")
+    void testGetUserDetailsFromClaims_StatelessMode() {
+        ReflectionTestUtils.setField(jwtUtils, "statelessPrincipal", true);
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        UserDetailsImpl principal = jwtUtils.getUserDetailsFromClaims(jwtUtils.parseJwtToken(token).getClaims());
+
+        assertThat(principal.getId()).isEqualTo(1L);
+        assertThat(principal.getUsername()).isEqualTo("test@test.com");
+        assertThat(principal.getFirstName()).isEqualTo("Test");
+        assertThat(principal.getLastName()).isEqualTo("User");
+        assertThat(principal.getAdmin()).isTrue();
+        assertThat(principal.getPassword()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not rebuild the principal when stateless mode is off")
+    void testGetUserDetailsFromClaims_DefaultMode() {
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        assertThat(jwtUtils.parseJwtToken(token).getClaims().get("id")).isNull();
+        assertThat(jwtUtils.getUserDetailsFromClaims(jwtUtils.parseJwtToken(token).getClaims())).isNull();
+    }
+
     @Test
     @DisplayName("Should validate correct token")
     void testValidateJwtToken_Valid() {
@@ -105,6 +161,7 @@ class JwtUtilsTest {
     void validateJwtToken_withSignatureException() {
         String token = jwtUtils.generateJwtToken(authentication);
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "otherSecret");
+        jwtUtils.init();
         boolean isValid = jwtUtils.validateJwtToken(token);
         assertThat(isValid).isFalse();
     }
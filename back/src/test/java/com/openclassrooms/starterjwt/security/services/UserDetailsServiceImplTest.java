@@ -8,13 +8,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserDetailsServiceImplTest {
@@ -34,11 +42,13 @@ class UserDetailsServiceImplTest {
                 .lastName("Doe")
                 .firstName("John")
                 .password("pwd")
-                .admin(false)
+                .admin(true)
                 .build();
         when(userRepository.findByEmail("john@test.com")).thenReturn(Optional.of(user));
 
-        assertThat(service.loadUserByUsername("john@test.com").getUsername()).isEqualTo("john@test.com");
+        UserDetailsImpl userDetails = (UserDetailsImpl) service.loadUserByUsername("john@test.com");
+        assertThat(userDetails.getUsername()).isEqualTo("john@test.com");
+        assertThat(userDetails.getAdmin()).isTrue();
     }
 
     @Test
@@ -49,4 +59,40 @@ class UserDetailsServiceImplTest {
         assertThatThrownBy(() -> service.loadUserByUsername("john@test.com"))
                 .isInstanceOf(UsernameNotFoundException.class);
     }
+
+    @Test
+    @DisplayName("Should store the upgraded hash")
+    void updatePassword_savesNewHash() {
+        User user = User.builder().id(1L).email("john@test.com").lastName("Doe").firstName("John").password("old").admin(false).build();
+        when(userRepository.findByEmail("john@test.com")).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        UserDetails result = service.updatePassword(service.loadUserByUsername("john@test.com"), "{bcrypt}new");
+
+        assertThat(result.getPassword()).isEqualTo("{bcrypt}new");
+        assertThat(user.getPassword()).isEqualTo("{bcrypt}new");
+    }
+
+    @Test
+    @DisplayName("Should rehash a legacy password on successful login")
+    void authenticate_legacyHash_isTransparentlyUpgraded() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", Collections.singletonMap("bcrypt", (PasswordEncoder) bcrypt));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        User user = User.builder().id(1L).email("john@test.com").lastName("Doe").firstName("John")
+                .password(bcrypt.encode("secret")).admin(false).build();
+        when(userRepository.findByEmail("john@test.com")).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(service);
+        provider.setUserDetailsPasswordService(service);
+        provider.setPasswordEncoder(passwordEncoder);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("john@test.com", "secret"));
+
+        assertThat(user.getPassword()).startsWith("{bcrypt}");
+        verify(userRepository).save(user);
+    }
 }
@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip through its opaque token")
+    void encodeDecode_roundTrip() {
+        Session session = Session.builder().id(12L).date(new Date(1700000000123L)).build();
+
+        SessionCursor cursor = SessionCursor.of(session);
+        SessionCursor decoded = SessionCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.getDate().getTime()).isEqualTo(1700000000123L);
+        assertThat(decoded.getId()).isEqualTo(12L);
+    }
+
+    @Test
+    @DisplayName("Should reject tampered tokens")
+    void decode_invalidToken_throws() {
+        assertThatThrownBy(() -> SessionCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SessionCursor.decode("YWJj")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SessionCursor.decode("YTpi")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
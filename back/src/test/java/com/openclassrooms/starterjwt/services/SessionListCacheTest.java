@@ -0,0 +1,78 @@
+package com.openclassrooms.starterjwt.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SessionListCacheTest {
+
+    private final SessionListCache cache = new SessionListCache(60000, 10);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static SessionListCache.Snapshot snapshot() {
+        return new SessionListCache.Snapshot("[]".getBytes(), "1-0", 0, null);
+    }
+
+    @Test
+    @DisplayName("Should serve a stored snapshot and count hits and misses")
+    void put_thenGet_returnsSnapshot() {
+        SessionListCache.Snapshot snapshot = snapshot();
+
+        assertThat(cache.get("k")).isNull();
+        cache.put("k", snapshot, cache.getGeneration());
+
+        assertThat(cache.get("k")).isSameAs(snapshot);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop snapshots rendered before a write")
+    void put_afterInvalidation_isIgnored() {
+        long generation = cache.getGeneration();
+        cache.invalidate();
+
+        cache.put("k", snapshot(), generation);
+
+        assertThat(cache.get("k")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should invalidate again once the writing transaction commits")
+    void invalidate_insideTransaction_clearsAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate();
+        cache.put("k", snapshot(), cache.getGeneration());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cache.get("k")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should build distinct keys for distinct page requests")
+    void key_dependsOnEveryListParameter() {
+        Date from = new Date(0);
+        String key = SessionListCache.key(from, null, false, PageRequest.of(0, 50, Sort.by("date")));
+
+        assertThat(key).isEqualTo(SessionListCache.key(new Date(0), null, false, PageRequest.of(0, 50, Sort.by("date"))));
+        assertThat(key).isNotEqualTo(SessionListCache.key(from, null, true, PageRequest.of(0, 50, Sort.by("date"))));
+        assertThat(key).isNotEqualTo(SessionListCache.key(from, null, false, PageRequest.of(1, 50, Sort.by("date"))));
+        assertThat(key).isNotEqualTo(SessionListCache.key(from, null, false, PageRequest.of(0, 50, Sort.by("name"))));
+        assertThat(key).isNotEqualTo(SessionListCache.key(null, from, false, PageRequest.of(0, 50, Sort.by("date"))));
+    }
+}
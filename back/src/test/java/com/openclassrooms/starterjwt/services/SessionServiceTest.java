@@ -1,11 +1,18 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.ParticipationDto;
+import com.openclassrooms.starterjwt.dto.ParticipationStatus;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionCapacity;
+import com.openclassrooms.starterjwt.payload.request.ParticipationRequest;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,6 +21,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.*;
 
@@ -27,26 +41,22 @@ class SessionServiceTest {
     @Mock
     private SessionRepository sessionRepository;
 
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SessionListCache sessionListCache;
+
     @InjectMocks
     private SessionService sessionService;
 
     private Session session;
-    private User user;
 
     @BeforeEach
     void setUp() {
-        user = User.builder()
-                .id(1L)
-                .email("john.doe@test.com")
-                .lastName("Doe")
-                .firstName("John")
-                .password("password")
-                .admin(false)
-                .build();
-
         session = Session.builder()
                 .id(1L)
                 .name("Morning Yoga")
@@ -65,6 +75,7 @@ class SessionServiceTest {
 
         assertThat(result).isEqualTo(session);
         verify(sessionRepository).save(session);
+        verify(sessionListCache).invalidate();
     }
 
     @Test
@@ -75,17 +86,70 @@ class SessionServiceTest {
         sessionService.delete(id);
 
         verify(sessionRepository).deleteById(id);
+        verify(sessionListCache).invalidate();
     }
 
     @Test
-    @DisplayName("Should find all sessions")
-    void findAll_shouldReturnSessions() {
-        when(sessionRepository.findAll()).thenReturn(List.of(session));
+    @DisplayName("Should find a slice of sessions without counting")
+    void findAll_withoutCount_returnsSlice() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Date from = new Date();
+        Slice<Session> slice = new SliceImpl<>(List.of(session));
+        when(sessionRepository.findSliceByDateWindow(from, null, pageable)).thenReturn(slice);
+
+        assertThat(sessionService.findAll(from, null, pageable, false)).isSameAs(slice);
+        verify(sessionRepository, never()).findPageByDateWindow(any(), any(), any());
+    }
 
-        List<Session> result = sessionService.findAll();
+    @Test
+    @DisplayName("Should find a counted page of sessions on request")
+    void findAll_withCount_returnsPage() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Session> page = new PageImpl<>(List.of(session), pageable, 1);
+        when(sessionRepository.findPageByDateWindow(null, null, pageable)).thenReturn(page);
+
+        assertThat(sessionService.findAll(null, null, pageable, true)).isSameAs(page);
+        verify(sessionRepository, never()).findSliceByDateWindow(any(), any(), any());
+    }
 
-        assertThat(result).containsExactly(session);
-        verify(sessionRepository).findAll();
+    @Test
+    @DisplayName("Should group participant ids per session from one projection query")
+    void findParticipantIds_groupsBySession() {
+        Session other = Session.builder().id(2L).build();
+        Session empty = Session.builder().id(3L).build();
+        when(sessionRepository.findParticipants(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                participant(1L, 10L), participant(1L, 11L), participant(2L, 10L)));
+
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(List.of(session, other, empty));
+
+        assertThat(result.get(1L)).containsExactly(10L, 11L);
+        assertThat(result.get(2L)).containsExactly(10L);
+        assertThat(result).doesNotContainKey(3L);
+    }
+
+    @Test
+    @DisplayName("Should not fetch participants of an empty page")
+    void findParticipantIds_emptyList_skipsQuery() {
+        assertThat(sessionService.findParticipantIds(new ArrayList<>())).isEmpty();
+        verify(sessionRepository, never()).findParticipants(any());
+    }
+
+    @Test
+    @DisplayName("Should seek the first sessions when no cursor is given")
+    void findAfter_withoutCursor_seeksFirstPage() {
+        when(sessionRepository.findSeekFirst(PageRequest.of(0, 11))).thenReturn(List.of(session));
+
+        assertThat(sessionService.findAfter(null, 11)).containsExactly(session);
+    }
+
+    @Test
+    @DisplayName("Should seek past the cursor position")
+    void findAfter_withCursor_seeksAfterPosition() {
+        Date date = new Date();
+        when(sessionRepository.findSeekAfter(date, 5L, PageRequest.of(0, 11))).thenReturn(List.of(session));
+
+        assertThat(sessionService.findAfter(new SessionCursor(date, 5L), 11)).containsExactly(session);
+        verify(sessionRepository, never()).findSeekFirst(any());
     }
 
     @Test
@@ -130,102 +194,358 @@ class SessionServiceTest {
     }
 
     @Test
-    @DisplayName("Should add user to session")
-    void participate_shouldAddUser() {
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    @DisplayName("Should reject a new session booked over its capacity")
+    void create_moreUsersThanCapacity_throwsBadRequest() {
+        session.setCapacity(1);
+        session.setUsers(Arrays.asList(new User(), new User()));
+
+        assertThrows(BadRequestException.class, () -> sessionService.create(session));
+
+        verify(sessionRepository, never()).save(any(Session.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an update that books more users than the capacity")
+    void update_moreUsersThanCapacity_throwsBadRequest() {
+        session.setCapacity(1);
+        session.setUsers(Arrays.asList(new User(), new User()));
+
+        assertThrows(BadRequestException.class, () -> sessionService.update(1L, session));
+
+        verify(sessionRepository, never()).save(any(Session.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an update that lowers the capacity below the current participants")
+    void update_capacityBelowParticipants_throwsBadRequest() {
+        session.setCapacity(2);
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(5));
+        when(sessionRepository.countParticipants(1L)).thenReturn(3L);
+
+        assertThrows(BadRequestException.class, () -> sessionService.update(1L, session));
+
+        verify(sessionRepository, never()).save(any(Session.class));
+    }
+
+    @Test
+    @DisplayName("Should accept a capacity that still fits the current participants")
+    void update_capacityAboveParticipants_saves() {
+        session.setCapacity(3);
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(5));
+        when(sessionRepository.countParticipants(1L)).thenReturn(3L);
+        when(sessionRepository.save(session)).thenReturn(session);
+
+        assertThat(sessionService.update(1L, session)).isEqualTo(session);
+    }
+
+    private static Optional<SessionCapacity> capacity(Integer capacity) {
+        return Optional.of(new SessionCapacity() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public Integer getCapacity() {
+                return capacity;
+            }
+        });
+    }
+
+    private static SessionParticipant participant(Long sessionId, Long userId) {
+        return new SessionParticipant() {
+            @Override
+            public Long getSessionId() {
+                return sessionId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should lock the session and insert the participation")
+    void participate_shouldInsertParticipation() {
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(null));
+        when(sessionRepository.addParticipant(1L, 1L)).thenReturn(1);
+
+        ParticipationDto result = sessionService.participate(1L, 1L);
+
+        assertThat(result.getStatus()).isEqualTo(ParticipationStatus.BOOKED);
+        verify(sessionRepository).addParticipant(1L, 1L);
+        verify(sessionRepository).touch(eq(1L), any());
+        verify(sessionListCache).invalidate();
+        verify(sessionRepository, never()).countParticipants(anyLong());
+        verify(sessionRepository, never()).lockCapacity(anyLong());
+        verifyNoInteractions(waitlistRepository);
+    }
+
+    @Test
+    @DisplayName("Should book a capped session while seats remain")
+    void participate_cappedSessionWithSeats_insertsParticipation() {
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.countParticipants(1L)).thenReturn(9L);
 
         sessionService.participate(1L, 1L);
 
-        assertThat(session.getUsers()).containsExactly(user);
-        verify(sessionRepository).findById(1L);
-        verify(userRepository).findById(1L);
-        verify(sessionRepository).save(session);
+        verify(sessionRepository).addParticipant(1L, 1L);
+        verify(waitlistRepository).deleteBySessionIdAndUserId(1L, 1L);
     }
 
     @Test
-    @DisplayName("Should throw NotFoundException when session not found")
-    void participate_shouldThrowNotFoundWhenSessionMissing() {
-        when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    @DisplayName("Should queue the user when capacity is reached")
+    void participate_fullSession_joinsWaitlist() {
+        WaitlistEntry entry = new WaitlistEntry().setId(7L).setSessionId(1L).setUserId(1L);
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.countParticipants(1L)).thenReturn(10L);
+        when(sessionRepository.countParticipation(1L, 1L)).thenReturn(0L);
+        when(waitlistRepository.findBySessionIdAndUserId(1L, 1L)).thenReturn(Optional.empty());
+        when(waitlistRepository.saveAndFlush(any(WaitlistEntry.class))).thenReturn(entry);
+        when(waitlistRepository.countBySessionIdAndIdLessThanEqual(1L, 7L)).thenReturn(3L);
+
+        ParticipationDto result = sessionService.participate(1L, 1L);
+
+        assertThat(result.getStatus()).isEqualTo(ParticipationStatus.WAITLISTED);
+        assertThat(result.getWaitlistPosition()).isEqualTo(3L);
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
+        verifyNoInteractions(sessionListCache);
+    }
+
+    @Test
+    @DisplayName("Should return the existing waitlist position when a queued user retries")
+    void participate_alreadyWaitlisted_returnsSamePosition() {
+        WaitlistEntry entry = new WaitlistEntry().setId(7L).setSessionId(1L).setUserId(1L);
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.countParticipants(1L)).thenReturn(10L);
+        when(sessionRepository.countParticipation(1L, 1L)).thenReturn(0L);
+        when(waitlistRepository.findBySessionIdAndUserId(1L, 1L)).thenReturn(Optional.of(entry));
+        when(waitlistRepository.countBySessionIdAndIdLessThanEqual(1L, 7L)).thenReturn(2L);
+
+        assertThat(sessionService.participate(1L, 1L).getWaitlistPosition()).isEqualTo(2L);
+        verify(waitlistRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should throw NotFoundException when a missing user joins the waitlist")
+    void participate_fullSessionUnknownUser_throwsNotFound() {
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.countParticipants(1L)).thenReturn(10L);
+        when(sessionRepository.countParticipation(1L, 1L)).thenReturn(0L);
+        when(waitlistRepository.findBySessionIdAndUserId(1L, 1L)).thenReturn(Optional.empty());
+        when(waitlistRepository.saveAndFlush(any(WaitlistEntry.class))).thenThrow(new DataIntegrityViolationException("foreign key"));
 
         assertThatThrownBy(() -> sessionService.participate(1L, 1L))
                 .isInstanceOf(NotFoundException.class);
-        verify(sessionRepository).findById(1L);
-        verify(userRepository).findById(1L);
-        verify(sessionRepository, never()).save(any());
     }
 
     @Test
-    @DisplayName("Should throw NotFoundException when user not found")
-    void participate_shouldThrowNotFoundWhenUserMissing() {
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+    @DisplayName("Should throw BadRequestException when a participant of a full session books again")
+    void participate_fullSessionAlreadyParticipating_throwsBadRequest() {
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.countParticipants(1L)).thenReturn(10L);
+        when(sessionRepository.countParticipation(1L, 1L)).thenReturn(1L);
 
         assertThatThrownBy(() -> sessionService.participate(1L, 1L))
-                .isInstanceOf(NotFoundException.class);
-        verify(sessionRepository).findById(1L);
-        verify(userRepository).findById(1L);
-        verify(sessionRepository, never()).save(any());
+                .isInstanceOf(BadRequestException.class);
     }
 
     @Test
-    void participate_bothMissing_throwNotFound() {
-        when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+    @DisplayName("Should throw NotFoundException when session is missing")
+    void participate_shouldThrowNotFoundWhenSessionMissing() {
+        when(sessionRepository.findCapacity(1L)).thenReturn(Optional.empty());
+
         assertThatThrownBy(() -> sessionService.participate(1L, 1L))
                 .isInstanceOf(NotFoundException.class);
-        verify(sessionRepository).findById(1L);
-        verify(userRepository).findById(1L);
-        verify(sessionRepository, never()).save(any());
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
     }
 
     @Test
     @DisplayName("Should throw BadRequestException when user already participates")
     void participate_shouldThrowBadRequestWhenAlreadyParticipates() {
-        session.getUsers().add(user);
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(null));
+        when(sessionRepository.addParticipant(1L, 1L)).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(sessionRepository.countParticipation(1L, 1L)).thenReturn(1L);
 
         assertThatThrownBy(() -> sessionService.participate(1L, 1L))
                 .isInstanceOf(BadRequestException.class);
-        verify(sessionRepository).findById(1L);
-        verify(userRepository).findById(1L);
-        verify(sessionRepository, never()).save(any());
     }
 
     @Test
-    @DisplayName("Should remove user from session")
-    void noLongerParticipate_shouldRemoveUser() {
-        session.getUsers().add(user);
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+    @DisplayName("Should throw NotFoundException when user is missing")
+    void participate_shouldThrowNotFoundWhenUserMissing() {
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(null));
+        when(sessionRepository.addParticipant(1L, 1L)).thenThrow(new DataIntegrityViolationException("foreign key"));
+        when(sessionRepository.countParticipation(1L, 1L)).thenReturn(0L);
+
+        assertThatThrownBy(() -> sessionService.participate(1L, 1L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should book a batch with one insert statement and report each item")
+    @SuppressWarnings("unchecked")
+    void participateAll_shouldBatchInsertAndReportEachItem() {
+        List<ParticipationRequest> requests = Arrays.asList(
+                new ParticipationRequest(2L, 1L),
+                new ParticipationRequest(1L, 1L),
+                new ParticipationRequest(1L, 2L),
+                new ParticipationRequest(1L, 99L),
+                new ParticipationRequest(3L, 1L));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Arrays.asList(1L, 2L));
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(null));
+        when(sessionRepository.lockCapacity(2L)).thenReturn(capacity(null));
+        when(sessionRepository.lockCapacity(3L)).thenReturn(Optional.empty());
+        when(sessionRepository.findParticipantIds(eq(1L), anyCollection())).thenReturn(Collections.singletonList(2L));
+        when(sessionRepository.findParticipantIds(eq(2L), anyCollection())).thenReturn(Collections.emptyList());
+
+        List<ParticipationDto> results = sessionService.participateAll(requests);
+
+        assertThat(results).extracting(ParticipationDto::getStatus).containsExactly(
+                ParticipationStatus.BOOKED,
+                ParticipationStatus.BOOKED,
+                ParticipationStatus.ALREADY_PARTICIPATING,
+                ParticipationStatus.NOT_FOUND,
+                ParticipationStatus.NOT_FOUND);
+
+        ArgumentCaptor<Map<Long, List<Long>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(sessionRepository).addParticipants(captor.capture());
+        assertThat(captor.getValue()).containsOnlyKeys(1L, 2L);
+        assertThat(captor.getValue().get(1L)).containsExactly(1L);
+        assertThat(captor.getValue().get(2L)).containsExactly(1L);
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should waitlist the items of a batch that overflow a capped session")
+    void participateAll_shouldWaitlistOverflow() {
+        WaitlistEntry entry = new WaitlistEntry().setId(5L).setSessionId(1L).setUserId(2L);
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Arrays.asList(1L, 2L));
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(5));
+        when(sessionRepository.findParticipantIds(eq(1L), anyCollection())).thenReturn(Collections.emptyList());
+        when(sessionRepository.countParticipants(1L)).thenReturn(4L);
+        when(waitlistRepository.findBySessionIdAndUserId(1L, 2L)).thenReturn(Optional.empty());
+        when(waitlistRepository.saveAndFlush(any(WaitlistEntry.class))).thenReturn(entry);
+        when(waitlistRepository.countBySessionIdAndIdLessThanEqual(1L, 5L)).thenReturn(1L);
+
+        List<ParticipationDto> results = sessionService.participateAll(Arrays.asList(
+                new ParticipationRequest(1L, 1L),
+                new ParticipationRequest(1L, 2L)));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(ParticipationStatus.BOOKED);
+        assertThat(results.get(1).getStatus()).isEqualTo(ParticipationStatus.WAITLISTED);
+        assertThat(results.get(1).getWaitlistPosition()).isEqualTo(1L);
+        verify(waitlistRepository).deleteBySessionIdAndUserIdIn(1L, Collections.singletonList(1L));
+    }
+
+    @Test
+    @DisplayName("Should remove user from session with a single delete")
+    void noLongerParticipate_shouldDeleteParticipation() {
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(null));
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(1);
 
         sessionService.noLongerParticipate(1L, 1L);
 
-        assertThat(session.getUsers()).doesNotContain(user);
-        verify(sessionRepository).findById(1L);
-        verify(sessionRepository).save(session);
+        verify(sessionRepository).removeParticipant(1L, 1L);
+        verifyNoInteractions(waitlistRepository);
+        verify(sessionListCache).invalidate();
+    }
+
+    @Test
+    @DisplayName("Should promote the first waiting user when a seat frees up")
+    void noLongerParticipate_shouldPromoteFromWaitlist() {
+        WaitlistEntry next = new WaitlistEntry().setId(7L).setSessionId(1L).setUserId(2L);
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(10));
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(1);
+        when(sessionRepository.countParticipants(1L)).thenReturn(9L);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L)).thenReturn(Optional.of(next));
+
+        sessionService.noLongerParticipate(1L, 1L);
+
+        verify(waitlistRepository).delete(next);
+        verify(sessionRepository).addParticipant(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should not promote anyone while the session is still full")
+    void noLongerParticipate_stillFull_doesNotPromote() {
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(5));
+        when(sessionRepository.lockCapacity(1L)).thenReturn(capacity(5));
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(1);
+        when(sessionRepository.countParticipants(1L)).thenReturn(5L);
+
+        sessionService.noLongerParticipate(1L, 1L);
+
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
+        verifyNoInteractions(waitlistRepository);
     }
 
     @Test
     @DisplayName("Should throw NotFoundException when session does not exist")
     void noLongerParticipate_shouldThrowNotFoundWhenSessionMissing() {
-        when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
+        when(sessionRepository.findCapacity(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> sessionService.noLongerParticipate(1L, 1L))
                 .isInstanceOf(NotFoundException.class);
-        verify(sessionRepository).findById(1L);
-        verify(sessionRepository, never()).save(any());
+        verify(sessionRepository, never()).removeParticipant(anyLong(), anyLong());
     }
 
     @Test
     @DisplayName("Should throw BadRequestException when user not participating")
     void noLongerParticipate_shouldThrowBadRequestWhenUserNotParticipating() {
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findCapacity(1L)).thenReturn(capacity(null));
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(0);
 
         assertThatThrownBy(() -> sessionService.noLongerParticipate(1L, 1L))
                 .isInstanceOf(BadRequestException.class);
-        verify(sessionRepository).findById(1L);
-        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should return the waitlist position of a queued user")
+    void getWaitlistPosition_queuedUser() {
+        WaitlistEntry entry = new WaitlistEntry().setId(7L).setSessionId(1L).setUserId(1L);
+        when(waitlistRepository.findBySessionIdAndUserId(1L, 1L)).thenReturn(Optional.of(entry));
+        when(waitlistRepository.countBySessionIdAndIdLessThanEqual(1L, 7L)).thenReturn(4L);
+
+        ParticipationDto result = sessionService.getWaitlistPosition(1L, 1L);
+
+        assertThat(result.getStatus()).isEqualTo(ParticipationStatus.WAITLISTED);
+        assertThat(result.getWaitlistPosition()).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("Should throw NotFoundException when user is not queued")
+    void getWaitlistPosition_notQueued() {
+        when(waitlistRepository.findBySessionIdAndUserId(1L, 1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> sessionService.getWaitlistPosition(1L, 1L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should leave the waitlist")
+    void leaveWaitlist_queuedUser() {
+        when(waitlistRepository.deleteBySessionIdAndUserId(1L, 1L)).thenReturn(1);
+
+        sessionService.leaveWaitlist(1L, 1L);
+
+        verify(waitlistRepository).deleteBySessionIdAndUserId(1L, 1L);
+    }
+
+    @Test
+    @DisplayName("Should throw NotFoundException when leaving a waitlist the user is not on")
+    void leaveWaitlist_notQueued() {
+        when(waitlistRepository.deleteBySessionIdAndUserId(1L, 1L)).thenReturn(0);
+
+        assertThatThrownBy(() -> sessionService.leaveWaitlist(1L, 1L))
+                .isInstanceOf(NotFoundException.class);
     }
 }
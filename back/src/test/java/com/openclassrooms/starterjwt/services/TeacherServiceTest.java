@@ -6,10 +6,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,13 +22,16 @@ class TeacherServiceTest {
     @Mock
     private TeacherRepository teacherRepository;
 
-    @InjectMocks
+    private TeacherCache teacherCache;
+
     private TeacherService teacherService;
 
     private Teacher teacher;
 
     @BeforeEach
     void setUp() {
+        teacherCache = new TeacherCache(60000, 100);
+        teacherService = new TeacherService(teacherRepository, teacherCache);
         teacher = Teacher.builder().id(1L).firstName("John").lastName("Doe").build();
     }
 
@@ -58,5 +61,92 @@ class TeacherServiceTest {
         Teacher result = teacherService.findById(1L);
         assertThat(result).isNull();
     }
-}
 
+    @Test
+    @DisplayName("Should serve repeated catalog reads from the cache")
+    void findAll_secondCall_isServedFromCache() {
+        when(teacherRepository.findAll()).thenReturn(List.of(teacher));
+
+        teacherService.findAll();
+        List<Teacher> result = teacherService.findAll();
+
+        assertThat(result).containsExactly(teacher);
+        assertThat(teacherService.findById(1L)).isEqualTo(teacher);
+        verify(teacherRepository, times(1)).findAll();
+        verify(teacherRepository, never()).findById(anyLong());
+        assertThat(teacherCache.getHits()).isEqualTo(2);
+        assertThat(teacherCache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups by id from the cache")
+    void findById_secondCall_isServedFromCache() {
+        when(teacherRepository.findById(1L)).thenReturn(Optional.of(teacher));
+
+        teacherService.findById(1L);
+        assertThat(teacherService.findById(1L)).isEqualTo(teacher);
+
+        verify(teacherRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should not cache unknown teachers")
+    void findById_unknownTeacher_isNotCached() {
+        when(teacherRepository.findById(2L)).thenReturn(Optional.empty());
+
+        teacherService.findById(2L);
+        teacherService.findById(2L);
+
+        verify(teacherRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    @DisplayName("Should reload from the repository after a teacher write")
+    void findAll_afterInvalidation_hitsRepository() {
+        when(teacherRepository.findAll()).thenReturn(List.of(teacher));
+
+        teacherService.findAll();
+        new TeacherCacheInvalidator(teacherCache).onWrite(teacher);
+        teacherService.findAll();
+
+        verify(teacherRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should not store a catalog read before a concurrent teacher write")
+    void findAll_writeDuringLoad_isNotCached() {
+        when(teacherRepository.findAll()).thenAnswer(invocation -> {
+            teacherCache.invalidate();
+            return List.of(teacher);
+        });
+
+        teacherService.findAll();
+        teacherService.findAll();
+
+        verify(teacherRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should hand out a catalog that callers cannot modify")
+    void findAll_returnsUnmodifiableList() {
+        when(teacherRepository.findAll()).thenReturn(new ArrayList<>(List.of(teacher)));
+
+        List<Teacher> loaded = teacherService.findAll();
+        List<Teacher> cached = teacherService.findAll();
+
+        assertThatThrownBy(() -> loaded.add(teacher)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> cached.clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("Should expire cached teachers after the configured TTL")
+    void findById_expiredEntry_hitsRepository() {
+        teacherService = new TeacherService(teacherRepository, new TeacherCache(0, 100));
+        when(teacherRepository.findById(1L)).thenReturn(Optional.of(teacher));
+
+        teacherService.findById(1L);
+        teacherService.findById(1L);
+
+        verify(teacherRepository, times(2)).findById(1L);
+    }
+}
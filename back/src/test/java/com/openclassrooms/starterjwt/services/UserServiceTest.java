@@ -1,9 +1,12 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 // Import de l'entité User utilisée dans les tests.
 import com.openclassrooms.starterjwt.models.User;
 // Référentiel mocké pour simuler l'accès aux données.
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +14,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -23,6 +29,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository; // Dépendance simulée.
 
+    @Mock
+    private JwtTokenCache jwtTokenCache; // Cache des tokens vérifiés simulé.
+
+    @Mock
+    private JwtRevocationList jwtRevocationList; // Liste de révocation simulée.
+
     @InjectMocks
     private UserService userService; // Service testé avec le repository injecté.
 
@@ -31,6 +43,8 @@ class UserServiceTest {
     void delete_shouldCallRepository() {
         userService.delete(1L); // Appel de la méthode à tester.
         verify(userRepository).deleteById(1L); // Vérifie l'appel au repository.
+        verify(jwtRevocationList).revoke(1L); // Les tokens sans état de l'utilisateur sont révoqués.
+        verify(jwtTokenCache).evictUser(1L); // Les tokens de l'utilisateur ne doivent plus être servis depuis le cache.
     }
 
     @Test
@@ -52,5 +66,35 @@ class UserServiceTest {
         User result = userService.findById(1L); // Appel du service.
         assertThat(result).isNull(); // Le résultat doit être null.
     }
-}
 
+    @Test
+    @DisplayName("Should resolve many users with one query in request order")
+    void findAllById_shouldReturnUsersInRequestOrder() {
+        User first = User.builder().id(1L).email("a@test.com").firstName("A").lastName("A").password("pwd").admin(false).build();
+        User second = User.builder().id(2L).email("b@test.com").firstName("B").lastName("B").password("pwd").admin(false).build();
+        when(userRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(first, second)); // Ordre quelconque renvoyé par la base.
+
+        List<User> result = userService.findAllById(Arrays.asList(2L, 1L, 2L)); // Les doublons sont ignorés.
+
+        assertThat(result).containsExactly(second, first);
+        verify(userRepository, never()).findById(anyLong()); // Aucune requête par utilisateur.
+    }
+
+    @Test
+    @DisplayName("Should report unknown user ids")
+    void findAllById_shouldThrowOnUnknownIds() {
+        User first = User.builder().id(1L).email("a@test.com").firstName("A").lastName("A").password("pwd").admin(false).build();
+        when(userRepository.findAllById(Arrays.asList(1L, 3L))).thenReturn(Collections.singletonList(first));
+
+        assertThatThrownBy(() -> userService.findAllById(Arrays.asList(1L, 3L)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("3"); // L'identifiant inconnu est signalé explicitement.
+    }
+
+    @Test
+    @DisplayName("Should not query the repository for an empty id list")
+    void findAllById_emptyIds() {
+        assertThat(userService.findAllById(Collections.emptyList())).isEmpty();
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -7,7 +7,7 @@ describe('Create session', () => {
     cy.mockTeachers() // Mock de la liste d'enseignants.
     cy.loginAs('admin')
     cy.wait('@getSessions')
-    cy.intercept('GET', '**/api/session', { fixture: 'sessions.list.after-create.json' }).as(
+    cy.intercept({ method: 'GET', pathname: '/api/session' }, { fixture: 'sessions.list.after-create.json' }).as(
       'getSessionsAfterCreation'
     )
     cy.get('[data-cy="create-session"]').click() // Accès au formulaire de création.
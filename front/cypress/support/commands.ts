@@ -20,7 +20,7 @@ Cypress.Commands.add('loginAs', (role: 'admin'|'user'='admin') => {
 
 // mocks sessions
 Cypress.Commands.add('mockSessionsList', () => {
-  cy.intercept('GET', '**/api/session', { fixture: 'sessions.list.json' }).as('getSessions')
+  cy.intercept({ method: 'GET', pathname: '/api/session' }, { fixture: 'sessions.list.json' }).as('getSessions')
 })
 Cypress.Commands.add('mockSessionDetail', () => {
   cy.intercept('GET', '**/api/session/**', { fixture: 'session.detail.json' }).as('getSession')
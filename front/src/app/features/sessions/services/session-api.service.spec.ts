@@ -26,7 +26,7 @@ describe('SessionApiService', () => {
     httpMock.verify();
   });
 
-  // Test de récupération de toutes les sessions.
+  // Test de récupération de toutes les sessions, passées comprises.
   it('should retrieve all sessions', () => {
     const mockSessions: Session[] = [
       { id: 1, name: 's1', description: 'd1', date: new Date(), teacher_id: 1, users: [] }
@@ -36,11 +36,35 @@ describe('SessionApiService', () => {
       expect(sessions).toEqual(mockSessions);
     });
 
-    const req = httpMock.expectOne('api/session');
+    const req = httpMock.expectOne((request) => request.url === 'api/session');
     expect(req.request.method).toBe('GET');
+    expect(req.request.params.has('from')).toBe(false);
+    expect(req.request.params.get('page')).toBe('0');
+    expect(req.request.params.get('size')).toBe('50');
     req.flush(mockSessions);
   });
 
+  // Test de lecture de plusieurs pages tant qu'une page est pleine.
+  it('should read the next page while pages are full', () => {
+    const fullPage: Session[] = Array.from({ length: 50 }, (_, i) => (
+      { id: i + 1, name: 's' + i, description: 'd', date: new Date(), teacher_id: 1, users: [] }
+    ));
+    const lastPage: Session[] = [
+      { id: 51, name: 's51', description: 'd', date: new Date(), teacher_id: 1, users: [] }
+    ];
+    let result: Session[] = [];
+
+    service.all().subscribe((sessions) => result = sessions);
+
+    const first = httpMock.expectOne((request) => request.params.get('page') === '0');
+    first.flush(fullPage);
+    const second = httpMock.expectOne((request) => request.params.get('page') === '1');
+    expect(second.request.urlWithParams).toBe('api/session?page=1&size=50');
+    second.flush(lastPage);
+
+    expect(result).toEqual([...fullPage, ...lastPage]);
+  });
+
   // Test de récupération du détail d'une session.
   it('should get session detail', () => {
     const mockSession: Session = { id: 1, name: 's1', description: 'd1', date: new Date(), teacher_id: 1, users: [] };
@@ -1,6 +1,7 @@
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Injectable } from '@angular/core';
-import { Observable } from 'rxjs';
+import { EMPTY, Observable } from 'rxjs';
+import { expand, map, reduce } from 'rxjs/operators';
 import { Session } from '../interfaces/session.interface';
 
 @Injectable({
@@ -10,11 +11,18 @@ export class SessionApiService {
 
   private pathService = 'api/session';
 
+  private pageSize = 50;
+
   constructor(private httpClient: HttpClient) {
   }
 
+  // All sessions, read page by page since the API returns at most one page per call.
+  // The page URLs stay stable so the server-side list cache and ETags keep applying.
   public all(): Observable<Session[]> {
-    return this.httpClient.get<Session[]>(this.pathService);
+    return this.page(0).pipe(
+      expand(({ page, sessions }) => sessions.length === this.pageSize ? this.page(page + 1) : EMPTY),
+      reduce((all: Session[], { sessions }) => all.concat(sessions), [])
+    );
   }
 
   public detail(id: string): Observable<Session> {
@@ -41,4 +49,13 @@ export class SessionApiService {
     return this.httpClient.delete<void>(`${this.pathService}/${id}/participate/${userId}`);
   }
 
+  private page(page: number): Observable<{ page: number, sessions: Session[] }> {
+    const params = new HttpParams()
+      .set('page', page)
+      .set('size', this.pageSize);
+    return this.httpClient.get<Session[]>(this.pathService, { params }).pipe(
+      map((sessions) => ({ page, sessions }))
+    );
+  }
+
 }